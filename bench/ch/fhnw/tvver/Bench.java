@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test signals for the benchmarks: seeded payloads, transmissions and channel.
+ *
+ * @author agent
+ *
+ */
+final class Bench {
+	/** Sampling frequency of all benchmarks. */
+	static final float SAMPLING_FREQUENCY = 48000;
+	/** Silence before and after a transmission, in samples. */
+	static final int   SILENCE            = 4096;
+
+	private Bench() {}
+
+	/**
+	 * @param length Number of bytes.
+	 * @return Reproducible random data.
+	 */
+	static byte[] data(int length) {
+		byte[] result = new byte[length];
+		new Random(length).nextBytes(result);
+		return result;
+	}
+
+	/**
+	 * Synthesize a complete transmission as Main.send does: silence, init sequence, data, silence.
+	 * @param sender The initialized sender.
+	 * @param preamble The result of sender.init().
+	 * @param data The data to send.
+	 * @return The audio samples.
+	 */
+	static float[] transmission(AbstractSender sender, float[] preamble, byte[] data) {
+		final int numSamples = sender.getNumSamples(data, 0, data.length);
+		final int silence    = SILENCE * sender.getNumChannels();
+		float[]   result     = new float[silence + preamble.length + numSamples + silence];
+		System.arraycopy(preamble, 0, result, silence, preamble.length);
+		sender.synthesizeInto(data, 0, data.length, result, silence + preamble.length);
+		return result;
+	}
+
+	/**
+	 * Apply the channel of Main in place.
+	 * @param samples The audio samples.
+	 * @param noise Noise amplitude.
+	 * @param gain Attenuation.
+	 * @param seed Seed of the noise.
+	 * @param channels Number of interleaved channels.
+	 * @return samples.
+	 */
+	static float[] channel(float[] samples, float noise, float gain, long seed, int channels) {
+		return new Channel(SAMPLING_FREQUENCY, Main.LOW_FREQ, Main.HIGH_FREQ, noise, gain, seed, channels).process(samples);
+	}
+
+	/**
+	 * Split samples into frames as delivered by the audio pipeline, the last frame is zero padded.
+	 * @param samples The audio samples.
+	 * @param frameSize Samples per frame.
+	 * @return The frames.
+	 */
+	static float[][] frames(float[] samples, int frameSize) {
+		float[][] result = new float[(samples.length + frameSize - 1) / frameSize][];
+		for(int i = 0; i < result.length; i++)
+			result[i] = Arrays.copyOfRange(samples, i * frameSize, (i + 1) * frameSize);
+		return result;
+	}
+}
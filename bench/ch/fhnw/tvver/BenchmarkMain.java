@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks against every modem found in this package, with allocation
+ * rates from the GC profiler.
+ *
+ * @author agent
+ *
+ */
+public class BenchmarkMain {
+	/**
+	 * @param args Optional first argument is a regular expression selecting the benchmarks,
+	 * further arguments select modems, e.g. "Decode QAM DTMF". Default are all benchmarks
+	 * and all modems.
+	 * @throws Exception Upon error.
+	 */
+	public static void main(String[] args) throws Exception {
+		List<String> modems = Modems.list();
+		if(args.length > 1) {
+			modems.clear();
+			for(int i = 1; i < args.length; i++)
+				modems.add(args[i]);
+		}
+		new Runner(new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "ch\\.fhnw\\.tvver\\..*Benchmark")
+				.param("modem", modems.toArray(new String[modems.size()]))
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Channel simulator throughput in samples/s, with the channel of Main alone and with 
+ * one additional impairment.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelBenchmark {
+	/* Samples per invocation. */
+	private static final int SAMPLES = 1 << 16;
+
+	@Param({"none", "awgn", "multipath", "frequency", "clock", "impulses", "clipping"})
+	public String impairment;
+
+	private Channel channel;
+	private float[] samples;
+	private float[] output;
+
+	@Setup
+	public void setup() {
+		channel = new Channel(Bench.SAMPLING_FREQUENCY, Main.LOW_FREQ, Main.HIGH_FREQ, Main.NOISE, 0.5f, 1);
+		switch(impairment) {
+		case "awgn":      channel.setSNR(20, 0.125f); break;
+		case "multipath": channel.setMultipath(new float[] {0.0007f, 0.0023f}, new float[] {0.5f, -0.3f}); break;
+		case "frequency": channel.setFrequencyOffset(2); break;
+		case "clock":     channel.setClockOffset(100, 3600); break;
+		case "impulses":  channel.setImpulseNoise(10, 0.5f); break;
+		case "clipping":  channel.setClipping(0.25f); break;
+		default: break;
+		}
+		samples = new float[SAMPLES];
+		Random rnd = new Random(SAMPLES);
+		for(int i = 0; i < samples.length; i++)
+			samples[i] = rnd.nextFloat() - 0.5f;
+		output = new float[SAMPLES];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLES)
+	public float[] process() {
+		channel.process(samples, 0, SAMPLES, output, 0);
+		return output;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DSP kernel throughput of the scalar and the vector implementation. Each invocation runs 
+ * a kernel over SAMPLES samples in blocks of length samples, the score is samples/s.
+ * 12 samples is a QAM symbol at 48 kHz, 120 a DTMF block. The vector implementation 
+ * requires Java 16 or later, the forked JVM enables jdk.incubator.vector.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class DSPBenchmark {
+	/* Samples per invocation. */
+	private static final int SAMPLES = 1 << 16;
+
+	@Param({"scalar", "vector"})
+	public String dsp;
+	/* Samples per kernel call. */
+	@Param({"12", "120", "1024"})
+	public int    length;
+
+	private DSP     kernels;
+	private float[] samples;
+	private float[] cos;
+	private float[] sin;
+	private float[] iq;
+	/* Goertzel filter bank of DTMFReceiver. */
+	private float[] coeff;
+	private float[] s1;
+	private float[] s2;
+
+	@Setup
+	public void setup() {
+		kernels = DSP.forName(dsp);
+		samples = new float[SAMPLES + length];
+		Random rnd = new Random(length);
+		for(int i = 0; i < samples.length; i++)
+			samples[i] = rnd.nextFloat() * 2 - 1;
+		cos = new float[length];
+		sin = new float[length];
+		for(int i = 0; i < length; i++) {
+			cos[i] = (float)Math.cos(2 * Math.PI * i / length);
+			sin[i] = (float)Math.sin(2 * Math.PI * i / length);
+		}
+		iq    = new float[2];
+		coeff = new float[DTMFReceiver.FREQS.length];
+		for(int i = 0; i < coeff.length; i++)
+			coeff[i] = (float)(2 * Math.cos(2 * Math.PI * DTMFReceiver.FREQS[i] / Bench.SAMPLING_FREQUENCY));
+		s1 = new float[coeff.length];
+		s2 = new float[coeff.length];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLES)
+	public float energy() {
+		float result = 0;
+		for(int i = 0; i < SAMPLES; i += length)
+			result += kernels.energy(samples, i, length);
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLES)
+	public float dot() {
+		float result = 0;
+		for(int i = 0; i < SAMPLES; i += length)
+			result += kernels.dot(samples, i, cos, 0, length);
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLES)
+	public float mix() {
+		float result = 0;
+		for(int i = 0; i < SAMPLES; i += length) {
+			kernels.mix(samples, i, cos, sin, length, iq);
+			result += iq[0] + iq[1];
+		}
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLES)
+	public float goertzel() {
+		float result = 0;
+		for(int i = 0; i < SAMPLES; i += length) {
+			kernels.goertzel(samples, i, length, coeff, s1, s2);
+			result += s1[0];
+			Arrays.fill(s1, 0f);
+			Arrays.fill(s2, 0f);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Receiver decode throughput. A transmission of PAYLOAD bytes is rendered and impaired
+ * by the channel once, each invocation feeds it to process(float[]) in frames of
+ * frameSize samples per channel. The "samples" and "bytes" counters report samples/s and decoded
+ * bytes/s.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodeBenchmark {
+	/* Payload of the transmission in bytes. */
+	private static final int PAYLOAD = 1024;
+
+	/* Overridden with all modems found by BenchmarkMain. */
+	@Param({"SimpleAM", "DTMF", "QAM"})
+	public String modem;
+	/* Samples per process() call. */
+	@Param({"256", "1024", "4096"})
+	public int    frameSize;
+	/* Noise amplitude of the channel. */
+	@Param({"0", "0.15"})
+	public float  noise;
+
+	private AbstractReceiver receiver;
+	private float[][]        frames;
+	private int              numSamples;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Counters {
+		public long samples;
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			samples = 0;
+			bytes   = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		AbstractSender sender   = Modems.sender(modem);
+		float[]        preamble = sender.init(Bench.SAMPLING_FREQUENCY);
+		float[]        signal   = Bench.channel(Bench.transmission(sender, preamble, Bench.data(PAYLOAD)), noise, 1, PAYLOAD, sender.getNumChannels());
+		frames     = Bench.frames(signal, frameSize * sender.getNumChannels());
+		numSamples = frames.length * frameSize;
+		receiver   = Modems.receiver(modem);
+		receiver.init(Bench.SAMPLING_FREQUENCY);
+	}
+
+	@Benchmark
+	public int decode(Counters counters) {
+		for(float[] frame : frames)
+			receiver.receive(frame);
+		int result = receiver.getAndClearData().length;
+		counters.samples += numSamples;
+		counters.bytes   += result;
+		return result;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sender synthesis throughput. The "bytes" and "samples" counters report bytes/s
+ * and samples/s, synthesize() measures the allocating path, synthesizeInto() the
+ * path into a preallocated buffer.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SynthesisBenchmark {
+	/* Overridden with all modems found by BenchmarkMain. */
+	@Param({"SimpleAM", "DTMF", "QAM"})
+	public String modem;
+	/* Payload size in bytes. */
+	@Param({"64", "256", "4096"})
+	public int    length;
+
+	private AbstractSender sender;
+	private byte[]         data;
+	private float[]        dst;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Counters {
+		public long bytes;
+		public long samples;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			bytes   = 0;
+			samples = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		sender = Modems.sender(modem);
+		sender.init(Bench.SAMPLING_FREQUENCY);
+		data   = Bench.data(length);
+		dst    = new float[sender.getNumSamples(data, 0, data.length)];
+	}
+
+	@Benchmark
+	public float[] synthesize(Counters counters) {
+		float[] result = sender.synthesize(data);
+		counters.bytes   += data.length;
+		counters.samples += result.length;
+		return result;
+	}
+
+	@Benchmark
+	public int synthesizeInto(Counters counters) {
+		int result = sender.synthesizeInto(data, 0, data.length, dst, 0);
+		counters.bytes   += data.length;
+		counters.samples += result;
+		return result;
+	}
+}
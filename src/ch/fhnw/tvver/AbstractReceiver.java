@@ -29,15 +29,19 @@
 
 package ch.fhnw.tvver;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
 
 import ch.fhnw.ether.audio.IAudioRenderTarget;
 import ch.fhnw.ether.media.AbstractRenderCommand;
 import ch.fhnw.ether.media.Parameter;
 import ch.fhnw.ether.media.RenderCommandException;
 import ch.fhnw.ether.media.Stateless;
-import ch.fhnw.util.ByteList;
 
 /**
  * Base class for tvver soft modem project receivers.
@@ -45,12 +49,21 @@ import ch.fhnw.util.ByteList;
  * @author sschubiger
  */
 public abstract class AbstractReceiver extends AbstractRenderCommand<IAudioRenderTarget,Stateless<IAudioRenderTarget>> {
-	/** Received data. */
-	private final ByteList                                          data = new ByteList();
+	/** Initial capacity of the default received data buffer in bytes, it grows as needed. */
+	public static final int DATA_CAPACITY = 1 << 16;
+
+	/** Received data, written by the render thread and drained by the test program. */
+	private ByteRing                                                data = new ByteRing(DATA_CAPACITY, ByteRing.Overflow.GROW);
 	/** Additional filters etc. to add to the audio pipeline. */
 	private final List<AbstractRenderCommand<IAudioRenderTarget,?>> cmds = new ArrayList<>();
 	/** The sampling frequency */
 	protected float  samplingFrequency;
+	/** Adaptive noise floor and signal level for start detection and decision thresholds. */
+	protected final SignalLevel level = new SignalLevel();
+	/** Publisher of received data, created by getDataPublisher(). */
+	private volatile SubmissionPublisher<ByteBuffer>                publisher;
+	/** Instrumentation, disabled by default. */
+	private final ReceiverMetrics metrics = new ReceiverMetrics();
 
 	public AbstractReceiver(Parameter ... params) {
 		super(params);
@@ -70,6 +83,7 @@ public abstract class AbstractReceiver extends AbstractRenderCommand<IAudioRende
 	 */
 	public void init(float samplingFrequency) {
 		this.samplingFrequency = samplingFrequency;
+		level.init(samplingFrequency);
 	}
 
 	/**
@@ -77,9 +91,116 @@ public abstract class AbstractReceiver extends AbstractRenderCommand<IAudioRende
 	 * @return The recevied data.
 	 */
 	public final byte[] getAndClearData() {
-		byte[] result = data.toArray();
-		data.clear();
-		return result;
+		return data.drain();
+	}
+
+	/**
+	 * Pull received data incrementally, may be called from another thread while the receiver runs.
+	 * @param dst The destination, filled from its position.
+	 * @return Number of bytes moved into dst.
+	 */
+	public final int drainData(ByteBuffer dst) {
+		return data.drain(dst);
+	}
+
+	/**
+	 * @return Number of bytes received and not pulled yet.
+	 */
+	public final int getAvailableData() {
+		return data.available();
+	}
+
+	/**
+	 * @return Number of received bytes dropped because the data buffer was full.
+	 */
+	public final long getDroppedData() {
+		return data.getDropped();
+	}
+
+	/**
+	 * Replace the received data buffer. The default starts with DATA_CAPACITY bytes and grows
+	 * as needed, thus no data is lost. A bounded buffer limits the memory if the data is not 
+	 * pulled. Call before the receiver runs, pending data is discarded.
+	 * @param capacity Capacity in bytes.
+	 * @param overflow What to do if the buffer is full.
+	 */
+	public final void setDataBuffer(int capacity, ByteRing.Overflow overflow) {
+		data = new ByteRing(capacity, overflow);
+	}
+
+	/**
+	 * Metrics of this receiver. Receivers wrapping other receivers, e.g. a FECReceiver, 
+	 * have their own metrics, those of the wrapped receiver must be enabled separately.
+	 * @return The metrics, enable them with setEnabled(true).
+	 */
+	public final ReceiverMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Process one audio frame and count it in the metrics if enabled. Call this method instead
+	 * of process() when feeding a receiver, e.g. from a wrapping receiver.
+	 * 
+	 * @param samples The audio samples in the range [-1..1].
+	 */
+	public final void receive(float[] samples) {
+		if(!(metrics.isEnabled()))
+			process(samples);
+		else {
+			final long start = System.nanoTime();
+			process(samples);
+			metrics.frame(samples.length, System.nanoTime() - start);
+		}
+		publish();
+	}
+
+	/**
+	 * Publish the received data as one batch if all subscribers have outstanding demand. 
+	 * Otherwise the data stays in the data buffer until the next frame.
+	 */
+	private void publish() {
+		final SubmissionPublisher<ByteBuffer> publisher = this.publisher;
+		if(publisher == null || !(publisher.hasSubscribers()) || publisher.estimateMinimumDemand() <= 0 || data.available() == 0)
+			return;
+		final ByteBuffer batch = ByteBuffer.allocate(data.available());
+		data.drain(batch);
+		batch.flip();
+		publisher.submit(batch.asReadOnlyBuffer());
+	}
+
+	/**
+	 * Push API for received data, delivered on the common fork/join pool.
+	 * @return The publisher.
+	 * @see #getDataPublisher(Executor)
+	 */
+	public final Flow.Publisher<ByteBuffer> getDataPublisher() {
+		return getDataPublisher(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Push API for received data. After each frame, the bytes received so far are published 
+	 * as one read-only batch, provided every subscriber has requested at least one more batch. 
+	 * Otherwise they stay in the data buffer, whose overflow policy then applies. While the 
+	 * publisher has subscribers, do not pull data with getAndClearData() or drainData().
+	 * @param executor The executor delivering to the subscribers, used by the first call only.
+	 * @return The publisher, the same for all calls.
+	 */
+	public final synchronized Flow.Publisher<ByteBuffer> getDataPublisher(Executor executor) {
+		if(publisher == null)
+			publisher = new SubmissionPublisher<>(executor, Flow.defaultBufferSize());
+		return publisher;
+	}
+
+	/**
+	 * Publish the remaining data regardless of demand and complete all subscriptions.
+	 * Call after the last frame, from the thread running the receiver.
+	 */
+	public final synchronized void closeDataPublisher() {
+		if(publisher == null) return;
+		if(publisher.hasSubscribers() && data.available() > 0)
+			publisher.submit(ByteBuffer.wrap(data.drain()).asReadOnlyBuffer());
+		publisher.close();
+		publisher = null;
 	}
 
 	/**
@@ -107,7 +228,7 @@ public abstract class AbstractReceiver extends AbstractRenderCommand<IAudioRende
 	 */
 	@Override
 	protected void run(Stateless<IAudioRenderTarget> state) throws RenderCommandException {
-		process(state.getTarget().getFrame().samples);
+		receive(state.getTarget().getFrame().samples);
 	}
 
 	/**
@@ -117,15 +238,14 @@ public abstract class AbstractReceiver extends AbstractRenderCommand<IAudioRende
 	 * @param data The byte to add to the output queue.
 	 */
 	protected final void addData(byte data) {
-		int i = this.data.size();
-		this.data.add(data);
+		this.data.put(data);
+		if(metrics.isEnabled())
+			metrics.bytes(1);
 
 		/*
 		switch(Main.dataType) {
 		default:
-			if(i > 0 && (i % 20) == 0)
-				System.out.println();
-			System.out.print(i + ":" + (data & 0xFF)+ ",");
+			System.out.print((data & 0xFF)+ ",");
 			System.out.flush();
 			break;
 		case TEXT:
@@ -135,4 +255,36 @@ public abstract class AbstractReceiver extends AbstractRenderCommand<IAudioRende
 		}
 		*/
 	}
+
+	/**
+	 * Count a sync acquisition, e.g. a detected start symbol. The SNR is estimated against
+	 * the noise floor of level, assuming Gaussian noise.
+	 * 
+	 * @param power Mean square of the signal, NaN if unknown.
+	 */
+	protected final void synced(float power) {
+		if(!(metrics.isEnabled())) return;
+		final float floor = level.floor();
+		float snr = Float.NaN;
+		if(floor != Float.MAX_VALUE && floor > 0 && power > 0)
+			/* Mean absolute value of Gaussian noise is sigma * sqrt(2 / PI). */
+			snr = (float)(10 * Math.log10(power / (floor * floor * Math.PI / 2)));
+		metrics.sync(snr);
+	}
+
+	/**
+	 * Count a sync loss, e.g. a rejected start symbol or a corrupt frame.
+	 */
+	protected final void lost() {
+		if(metrics.isEnabled())
+			metrics.syncLost();
+	}
+
+	/**
+	 * Count one demodulated symbol.
+	 */
+	protected final void symbol() {
+		if(metrics.isEnabled())
+			metrics.symbol();
+	}
 }
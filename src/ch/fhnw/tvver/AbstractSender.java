@@ -29,8 +29,10 @@
 
 package ch.fhnw.tvver;
 
+import java.nio.BufferOverflowException;
+import java.nio.FloatBuffer;
+
 import ch.fhnw.util.ClassUtilities;
-import ch.fhnw.util.FloatList;
 
 /**
  * Base class for tvver soft modem senders.
@@ -41,6 +43,8 @@ import ch.fhnw.util.FloatList;
 public abstract class AbstractSender {
 	/** The sampling frequency */
 	protected float samplingFrequency;
+	/** Intermediate samples of synthesizeInto() for direct buffers, grown to the largest chunk. */
+	private float[] scratch = new float[0];
 
 	/**
 	 * Synthesize one byte of data as audio samples. Override this method
@@ -54,17 +58,112 @@ public abstract class AbstractSender {
 	}
 
 	/**
-	 * Synthesize data as audio samples. Override this method
+	 * Synthesize data as audio samples. This is a convenience wrapper around 
+	 * getNumSamples() and synthesizeInto(). Override these methods instead 
 	 * for transmitting chunks of data.
 	 * 
 	 * @param data The data to transmit. 
 	 * @return The audio representation (as PCM samples) of the data. 
 	 */
 	public float[] synthesize(byte[] data) {
-		FloatList result = new FloatList();
-		for(int i = 0; i < data.length; i++)
-			result.addAll(synthesize(data[i]));
-		return result.toArray();
+		float[] result = new float[getNumSamples(data, 0, data.length)];
+		synthesizeInto(data, 0, data.length, result, 0);
+		return result;
+	}
+
+	/**
+	 * Compute the exact number of samples synthesizeInto() will write for the given data.
+	 * The default implementation synthesizes every byte with synthesize(byte), 
+	 * override this method together with synthesizeInto().
+	 * 
+	 * @param data The data to transmit.
+	 * @param off Offset of the first byte in data.
+	 * @param len Number of bytes to transmit.
+	 * @return The number of samples required for the data.
+	 */
+	public int getNumSamples(byte[] data, int off, int len) {
+		int result = 0;
+		for(int i = off; i < off + len; i++)
+			result += synthesize(data[i]).length;
+		return result;
+	}
+
+	/**
+	 * Synthesize data as audio samples into a caller provided buffer. Override this method
+	 * for transmitting chunks of data without allocating memory per byte. The default 
+	 * implementation concatenates the results of synthesize(byte).
+	 * 
+	 * @param src The data to transmit.
+	 * @param off Offset of the first byte in src.
+	 * @param len Number of bytes to transmit.
+	 * @param dst The destination for the audio samples. Must hold at least getNumSamples(src, off, len) samples after dstOff. 
+	 * @param dstOff Offset of the first sample in dst.
+	 * @return The number of samples written.
+	 */
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		int pos = dstOff;
+		for(int i = off; i < off + len; i++) {
+			float[] samples = synthesize(src[i]);
+			System.arraycopy(samples, 0, dst, pos, samples.length);
+			pos += samples.length;
+		}
+		return pos - dstOff;
+	}
+
+	/**
+	 * Synthesize data as audio samples into a float buffer. The samples are written at the 
+	 * current position of the buffer and the position is advanced accordingly.
+	 * 
+	 * @param src The data to transmit.
+	 * @param off Offset of the first byte in src.
+	 * @param len Number of bytes to transmit.
+	 * @param dst The destination for the audio samples.
+	 * @return The number of samples written.
+	 * @throws BufferOverflowException If dst has not enough space remaining.
+	 */
+	public int synthesizeInto(byte[] src, int off, int len, FloatBuffer dst) {
+		final int numSamples = getNumSamples(src, off, len);
+		if(dst.remaining() < numSamples)
+			throw new BufferOverflowException();
+
+		/* Heap buffers are written directly, direct buffers chunk by chunk through a reused array. */
+		if(dst.hasArray()) {
+			int result = synthesizeInto(src, off, len, dst.array(), dst.arrayOffset() + dst.position());
+			dst.position(dst.position() + result);
+			return result;
+		}
+		int result = 0;
+		for(int i = 0; i < len; i += getChunkSize()) {
+			final int n = Math.min(getChunkSize(), len - i);
+			final int m = getNumSamples(src, off + i, n);
+			if(scratch.length < m)
+				scratch = new float[m];
+			result += synthesizeInto(src, off + i, n, scratch, 0);
+			dst.put(scratch, 0, m);
+		}
+		return result;
+	}
+
+	/**
+	 * Number of bytes per synthesizeInto() call when data is streamed. Synthesizing data in 
+	 * chunks of this size must produce the same audio samples as synthesizing it at once,
+	 * senders with framing return their frame size. The default suits senders which 
+	 * synthesize every byte independently.
+	 * 
+	 * @return The chunk size in bytes.
+	 */
+	public int getChunkSize() {
+		return 256;
+	}
+
+	/**
+	 * Number of audio channels. The samples of synthesizeInto() and init() are interleaved,
+	 * one sample per channel and frame as in the audio pipeline.
+	 * 
+	 * @return The number of channels.
+	 */
+	public int getNumChannels() {
+		return 1;
 	}
 
 	/** 
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Monte Carlo estimation of bit and frame error rates over the SNR. Each trial sends a 
+ * random payload of its own through a fresh sender, a Channel with white Gaussian noise
+ * at the SNR and a fresh receiver, one trial is one frame. Trials run in batches of BATCH 
+ * on a ForkJoinPool. After each batch, a point stops as soon as it has at least minErrors 
+ * bit errors and the confidence interval of the bit error rate is narrower than precision 
+ * times the estimate, or after maxTrials. Since bit errors come in bursts, the interval
+ * is taken from the spread of the errors per trial rather than from a binomial model.
+ * Trials are seeded from the seed, the SNR index and the trial number, thus the results
+ * do not depend on the number of threads.
+ * 
+ * @author agent
+ *
+ */
+public final class BERCurve {
+	/* Trials per batch between two checks of the stop criterion. */
+	static final int BATCH = 16;
+
+	/**
+	 * Result of one SNR.
+	 */
+	public static final class Point {
+		public final float  snr;
+		public final int    trials;
+		public final long   bits;
+		public final long   bitErrors;
+		/** Bit error rate and its confidence interval. */
+		public final double ber;
+		public final double berLow;
+		public final double berHigh;
+		public final int    frameErrors;
+		/** Frame error rate and its confidence interval (Wilson score). */
+		public final double fer;
+		public final double ferLow;
+		public final double ferHigh;
+		/** Wall clock time in seconds. */
+		public final double time;
+
+		Point(float snr, int trials, long bits, long bitErrors, double berLow, double berHigh, int frameErrors, double z, double time) {
+			this.snr         = snr;
+			this.trials      = trials;
+			this.bits        = bits;
+			this.bitErrors   = bitErrors;
+			this.ber         = bitErrors / (double)bits;
+			this.berLow      = berLow;
+			this.berHigh     = berHigh;
+			this.frameErrors = frameErrors;
+			this.fer         = frameErrors / (double)trials;
+			/* Wilson score interval. */
+			final double z2     = z * z;
+			final double center = (fer + z2 / (2 * trials)) / (1 + z2 / trials);
+			final double half   = z / (1 + z2 / trials) * Math.sqrt(fer * (1 - fer) / trials + z2 / (4.0 * trials * trials));
+			this.ferLow      = Math.max(0, center - half);
+			this.ferHigh     = Math.min(1, center + half);
+			this.time        = time;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%6.1f %7d %11d %10.3e %10.3e %10.3e %8.5f %8.5f %8.5f %8.2f", 
+					snr, trials, bitErrors, ber, berLow, berHigh, fer, ferLow, ferHigh, time);
+		}
+	}
+
+	private final String      modem;
+	private final int         length;
+	private final float       samplingFrequency;
+	private final long        seed;
+	/* Stop criterion, see setStop(). */
+	private double            confidence  = 0.95;
+	private double            precision   = 0.1;
+	private int               minErrors   = 20;
+	private int               maxTrials   = 10000;
+	/* Further impairments of the channel. */
+	private Consumer<Channel> impairments = channel -> {};
+
+	/**
+	 * Create an engine.
+	 * @param modem The modem name as for Main, e.g. "RS+QAM16".
+	 * @param length Payload per trial in bytes.
+	 * @param samplingFrequency The sampling frequency of the channel.
+	 * @param seed Seed of the payloads and the channels.
+	 */
+	public BERCurve(String modem, int length, float samplingFrequency, long seed) {
+		if(length <= 0)
+			throw new IllegalArgumentException("Payload must be positive: " + length);
+		this.modem             = modem;
+		this.length            = length;
+		this.samplingFrequency = samplingFrequency;
+		this.seed              = seed;
+	}
+
+	/**
+	 * Set the stop criterion.
+	 * @param confidence Confidence level of the intervals, e.g. 0.95.
+	 * @param precision Largest half width of the BER interval relative to the BER, e.g. 0.1.
+	 * @param minErrors Least number of bit errors before a point may stop.
+	 * @param maxTrials Most trials per point.
+	 */
+	public void setStop(double confidence, double precision, int minErrors, int maxTrials) {
+		if(!(confidence > 0 && confidence < 1))
+			throw new IllegalArgumentException("Confidence must be in (0,1): " + confidence);
+		this.confidence = confidence;
+		this.precision  = precision;
+		this.minErrors  = minErrors;
+		this.maxTrials  = maxTrials;
+	}
+
+	/**
+	 * @param impairments Called for the Channel of each trial, after the AWGN is set, to add further impairments.
+	 */
+	public void setImpairments(Consumer<Channel> impairments) {
+		this.impairments = impairments;
+	}
+
+	/**
+	 * Run one trial.
+	 * @return The number of bit errors, missing and surplus bytes count as 8 errors, at most 
+	 * the number of payload bits.
+	 */
+	private long trial(float snr, long seed) throws ReflectiveOperationException {
+		final byte[] data = new byte[length];
+		new Random(seed).nextBytes(data);
+
+		final AbstractSender sender   = Modems.sender(modem);
+		final float[]        preamble = sender.init(samplingFrequency);
+		final int            channels = sender.getNumChannels();
+		final int            samples  = preamble.length + sender.getNumSamples(data, 0, data.length);
+		final int            silence  = Sweep.scale(Sweep.SILENCE, samplingFrequency) * channels;
+		final float[]        signal   = new float[silence + samples + silence];
+		System.arraycopy(preamble, 0, signal, silence, preamble.length);
+		sender.synthesizeInto(data, 0, data.length, signal, silence + preamble.length);
+
+		final Channel channel = new Channel(samplingFrequency, Main.LOW_FREQ, Main.HIGH_FREQ, 0, 1, seed, channels);
+		channel.setSNR(snr, Channel.power(signal, silence, samples));
+		impairments.accept(channel);
+
+		final AbstractReceiver recv  = Modems.receiver(modem);
+		final float[]          frame = new float[Sweep.scale(Sweep.FRAME_SIZE, samplingFrequency) * channels];
+		recv.init(samplingFrequency);
+		for(int i = 0; i < signal.length; i += frame.length) {
+			final int len = Math.min(frame.length, signal.length - i);
+			channel.process(signal, i, len, frame, 0);
+			if(len < frame.length)
+				Arrays.fill(frame, len, frame.length, 0f);
+			recv.receive(frame);
+		}
+		final byte[] received = recv.getAndClearData();
+		long errors = 8L * Math.abs(data.length - received.length);
+		for(int i = 0; i < Math.min(data.length, received.length); i++)
+			errors += Integer.bitCount((data[i] ^ received[i]) & 0xFF);
+		return Math.min(errors, 8L * data.length);
+	}
+
+	/**
+	 * Estimate the error rates at one SNR.
+	 * @param snr The SNR in dB.
+	 * @param index Index of the SNR, part of the trial seeds.
+	 * @param pool The pool to run the trials on.
+	 * @return The estimate.
+	 * @throws ExecutionException If a trial fails.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public Point run(float snr, int index, ForkJoinPool pool) throws InterruptedException, ExecutionException {
+		final double z     = z(confidence);
+		final long   bits  = 8L * length;
+		final long   start = System.nanoTime();
+		long   errors      = 0;
+		double squares     = 0;
+		int    frameErrors = 0;
+		int    trials      = 0;
+		double half        = Double.MAX_VALUE;
+		while(trials < maxTrials) {
+			final List<Callable<Long>> tasks = new ArrayList<>();
+			for(int i = 0; i < BATCH && trials + i < maxTrials; i++) {
+				final long trialSeed = seed + 0x9E3779B97F4A7C15L * (((long)index << 32) + trials + i);
+				tasks.add(() -> trial(snr, trialSeed));
+			}
+			for(Future<Long> result : pool.invokeAll(tasks)) {
+				final long e = result.get();
+				errors  += e;
+				squares += (double)e * e;
+				if(e > 0) frameErrors++;
+				trials++;
+			}
+			/* Standard error of the mean errors per trial. */
+			final double mean     = errors / (double)trials;
+			final double variance = trials > 1 ? Math.max(0, (squares - trials * mean * mean) / (trials - 1)) : Double.MAX_VALUE;
+			half = z * Math.sqrt(variance / trials) / bits;
+			if(errors >= minErrors && half <= precision * mean / bits)
+				break;
+		}
+		final long   total = bits * trials;
+		final double ber   = errors / (double)total;
+		/* Without errors, the upper bound is the rate at which no error occurs with probability 1 - confidence. */
+		final double low   = errors == 0 ? 0 : Math.max(0, ber - half);
+		final double high  = errors == 0 ? -Math.log(1 - confidence) / total : Math.min(1, ber + half);
+		return new Point(snr, trials, total, errors, low, high, frameErrors, z, (System.nanoTime() - start) / 1e9);
+	}
+
+	/**
+	 * Estimate the error rates over the SNRs. Stops after the first SNR without errors, 
+	 * higher SNRs are assumed to be error free as well.
+	 * @param snrs The SNRs in dB, ascending.
+	 * @param pool The pool to run the trials on.
+	 * @return The points.
+	 * @throws ExecutionException If a trial fails.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public List<Point> run(float[] snrs, ForkJoinPool pool) throws InterruptedException, ExecutionException {
+		List<Point> result = new ArrayList<>();
+		for(int i = 0; i < snrs.length; i++) {
+			final Point point = run(snrs[i], i, pool);
+			result.add(point);
+			if(point.bitErrors == 0) break;
+		}
+		return result;
+	}
+
+	/**
+	 * Quantile of the standard normal distribution for a two sided interval, with Acklam's
+	 * rational approximation (relative error below 1.2e-9).
+	 * @param confidence Confidence level.
+	 * @return z such that P(|X| &lt;= z) = confidence.
+	 */
+	static double z(double confidence) {
+		final double   p = 1 - (1 - confidence) / 2;
+		final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+		final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01};
+		final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+		final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+		if(p > 0.97575) {
+			final double q = Math.sqrt(-2 * Math.log(1 - p));
+			return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		final double q = p - 0.5;
+		final double r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+	}
+
+	/**
+	 * Write the points as CSV with a header line.
+	 * @param modem The modem name.
+	 * @param points The points.
+	 * @param out The destination.
+	 */
+	public static void csv(String modem, List<Point> points, PrintStream out) {
+		out.println("modem,snr,trials,bits,bit_errors,ber,ber_low,ber_high,frame_errors,fer,fer_low,fer_high,time");
+		for(Point p : points)
+			out.printf(Locale.ROOT, "%s,%.2f,%d,%d,%d,%.6e,%.6e,%.6e,%d,%.6e,%.6e,%.6e,%.3f%n", 
+					modem, p.snr, p.trials, p.bits, p.bitErrors, p.ber, p.berLow, p.berHigh, p.frameErrors, p.fer, p.ferLow, p.ferHigh, p.time);
+	}
+
+	/**
+	 * Write the points and the parameters of the run as JSON.
+	 * @param points The points.
+	 * @param out The destination.
+	 */
+	public void json(List<Point> points, PrintStream out) {
+		out.printf(Locale.ROOT, "{\"modem\":\"%s\",\"bytes\":%d,\"samplingFrequency\":%.0f,\"seed\":%d,\"confidence\":%s,\"precision\":%s,\"minErrors\":%d,\"maxTrials\":%d,\"points\":[", 
+				modem.replace("\\", "\\\\").replace("\"", "\\\""), length, samplingFrequency, seed, confidence, precision, minErrors, maxTrials);
+		for(int i = 0; i < points.size(); i++) {
+			final Point p = points.get(i);
+			out.printf(Locale.ROOT, "%s%n {\"snr\":%.2f,\"trials\":%d,\"bits\":%d,\"bitErrors\":%d,\"ber\":%.6e,\"berLow\":%.6e,\"berHigh\":%.6e,\"frameErrors\":%d,\"fer\":%.6e,\"ferLow\":%.6e,\"ferHigh\":%.6e,\"time\":%.3f}", 
+					i == 0 ? "" : ",", p.snr, p.trials, p.bits, p.bitErrors, p.ber, p.berLow, p.berHigh, p.frameErrors, p.fer, p.ferLow, p.ferHigh, p.time);
+		}
+		out.println("\n]}");
+	}
+
+	/**
+	 * Estimate a BER curve and print the table.
+	 * 
+	 * @param args First argument is the modem name as for Main, e.g. "QAM". Options: 
+	 * "-snr from:to:step" in dB (default 0:30:2), "-bytes n" payload per trial (default 256),
+	 * "-confidence c" (default 0.95), "-precision p" relative half width of the BER interval 
+	 * (default 0.1), "-errors n" least bit errors per point (default 20), "-trials n" most trials 
+	 * per point (default 10000), "-seed n" (default 1), "-rate hz" sampling frequency (default 48000), 
+	 * "-threads n" (default all cores), "-csv file" and "-json file" write the results.
+	 * @throws Exception Upon error.
+	 */
+	public static void main(String[] args) throws Exception {
+		float[] range      = {0, 30, 2};
+		int     length     = 256;
+		double  confidence = 0.95;
+		double  precision  = 0.1;
+		int     minErrors  = 20;
+		int     maxTrials  = 10000;
+		long    seed       = 1;
+		float   rate       = Sweep.SAMPLING_FREQUENCY;
+		int     threads    = Runtime.getRuntime().availableProcessors();
+		String  csv        = null;
+		String  json       = null;
+		for(int i = 1; i + 1 < args.length; i += 2) {
+			if("-snr".equals(args[i])) {
+				String[] snr = args[i + 1].split(":");
+				for(int j = 0; j < snr.length; j++)
+					range[j] = Float.parseFloat(snr[j]);
+			}
+			if("-bytes".equals(args[i]))      length     = Integer.parseInt(args[i + 1]);
+			if("-confidence".equals(args[i])) confidence = Double.parseDouble(args[i + 1]);
+			if("-precision".equals(args[i]))  precision  = Double.parseDouble(args[i + 1]);
+			if("-errors".equals(args[i]))     minErrors  = Integer.parseInt(args[i + 1]);
+			if("-trials".equals(args[i]))     maxTrials  = Integer.parseInt(args[i + 1]);
+			if("-seed".equals(args[i]))       seed       = Long.parseLong(args[i + 1]);
+			if("-rate".equals(args[i]))       rate       = Float.parseFloat(args[i + 1]);
+			if("-threads".equals(args[i]))    threads    = Integer.parseInt(args[i + 1]);
+			if("-csv".equals(args[i]))        csv        = args[i + 1];
+			if("-json".equals(args[i]))       json       = args[i + 1];
+		}
+		if(!(range[2] > 0))
+			throw new IllegalArgumentException("SNR step must be positive: " + range[2]);
+		final float[] snrs = new float[Math.max(0, (int)Math.floor((range[1] - range[0]) / range[2] + 1e-6) + 1)];
+		for(int i = 0; i < snrs.length; i++)
+			snrs[i] = range[0] + i * range[2];
+
+		final BERCurve curve = new BERCurve(args[0], length, rate, seed);
+		curve.setStop(confidence, precision, minErrors, maxTrials);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			long        time   = System.nanoTime();
+			List<Point> points = curve.run(snrs, pool);
+			time = System.nanoTime() - time;
+
+			System.out.println("   snr  trials  bit errors        ber    ber low   ber high      fer  fer low fer high     time");
+			for(Point point : points)
+				System.out.println(point);
+			System.out.printf(Locale.ROOT, "%s: %d points on %d threads in %.2f s%n", args[0], points.size(), threads, time / 1e9);
+			if(csv != null)
+				write(csv, out -> csv(args[0], points, out));
+			if(json != null)
+				write(json, out -> curve.json(points, out));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void write(String file, Consumer<PrintStream> writer) throws IOException {
+		try(PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(file)), false, "UTF-8")) {
+			writer.accept(out);
+		}
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Decodes many recorded transmissions in one process. Each wav file is decoded by its
+ * own receiver instance at the file's sampling frequency, the samples are streamed from 
+ * the file in frames as the audio pipeline delivers them. Files whose channel count 
+ * differs from the modem's fail. Files are 
+ * decoded on virtual threads if the Java runtime has them, on a fixed thread pool otherwise, 
+ * at most concurrency files at a time. Results are passed to the sink as files complete.
+ * 
+ * @author agent
+ *
+ */
+public final class BatchDecoder {
+	/* Samples per channel and process() call. */
+	static final int FRAME_SIZE = 1024;
+	/* Bytes per sample of the PCM format the files are converted to. */
+	static final int SAMPLE_SZ  = 2;
+	/* Characters starting a glob pattern. */
+	private static final String WILDCARDS = "*?[{";
+
+	/**
+	 * Result of one file.
+	 */
+	public static final class Result {
+		/** The decoded file. */
+		public final Path   file;
+		/** Sampling frequency and number of channels of the file. */
+		public final float  samplingFrequency;
+		public final int    channels;
+		/** Duration of the recording in seconds. */
+		public final double duration;
+		/** The decoded data, empty on failure. */
+		public final byte[] data;
+		/** Byte errors against the reference data, -1 without reference data. */
+		public final int    errors;
+		/** Decoding time in nanoseconds, including reading the file. */
+		public final long   time;
+		/** Reason of a failure or null. */
+		public final String failure;
+
+		Result(Path file, float samplingFrequency, int channels, double duration, byte[] data, int errors, long time, String failure) {
+			this.file              = file;
+			this.samplingFrequency = samplingFrequency;
+			this.channels          = channels;
+			this.duration          = duration;
+			this.data              = data;
+			this.errors            = errors;
+			this.time              = time;
+			this.failure           = failure;
+		}
+
+		@Override
+		public String toString() {
+			if(failure != null)
+				return String.format(Locale.ROOT, "%s\tfailed: %s", file, failure);
+			return String.format(Locale.ROOT, "%s\t%.0f\t%d\t%.3f\t%d\t%d\t%.1f", file, samplingFrequency, channels, duration, data.length, errors, time / 1e6);
+		}
+	}
+
+	private final String modem;
+	private final int    concurrency;
+	private final byte[] reference;
+
+	/**
+	 * Create a batch decoder.
+	 * @param modem The modem name as for Main, e.g. "RS+QAM16".
+	 * @param concurrency Maximum number of files decoded at the same time.
+	 * @param reference Data expected in every file for the error count, or null.
+	 */
+	public BatchDecoder(String modem, int concurrency, byte[] reference) {
+		if(concurrency < 1)
+			throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+		this.modem       = modem;
+		this.concurrency = concurrency;
+		this.reference   = reference;
+	}
+
+	/**
+	 * Decode one file.
+	 */
+	private Result decode(Path file) {
+		final long start = System.nanoTime();
+		try(AudioInputStream in = open(file)) {
+			final AudioFormat      format = in.getFormat();
+			final int              n      = format.getChannels();
+			final int              m      = Modems.sender(modem).getNumChannels();
+			if(n != m)
+				return new Result(file, format.getSampleRate(), n, 0, new byte[0], -1, System.nanoTime() - start, 
+						"file has " + n + " channels, " + modem + " expects " + m);
+			final AbstractReceiver recv   = Modems.receiver(modem);
+			final byte[]           bytes  = new byte[FRAME_SIZE * n * SAMPLE_SZ];
+			final float[]          frame  = new float[FRAME_SIZE * n];
+			final ByteBuffer       chunk  = ByteBuffer.allocate(FRAME_SIZE);
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			long samples = 0;
+			recv.init(format.getSampleRate());
+			for(int len; (len = read(in, bytes)) > 0;) {
+				for(int i = 0; i < len / SAMPLE_SZ; i++)
+					frame[i] = (short)((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8)) / 32768f;
+				for(int i = len / SAMPLE_SZ; i < frame.length; i++)
+					frame[i] = 0;
+				recv.receive(frame);
+				samples += len / SAMPLE_SZ;
+				/* Drain as we go, long recordings may exceed the receiver's data buffer. */
+				drain(recv, chunk, out);
+			}
+			drain(recv, chunk, out);
+			final byte[] data = out.toByteArray();
+			return new Result(file, format.getSampleRate(), n, samples / n / (double)format.getSampleRate(), data, 
+					reference == null ? -1 : Main.errors(reference, data), System.nanoTime() - start, null);
+		} catch(IOException | UnsupportedAudioFileException | ReflectiveOperationException | RuntimeException e) {
+			return new Result(file, 0, 0, 0, new byte[0], -1, System.nanoTime() - start, e.toString());
+		}
+	}
+
+	/**
+	 * Open a wav file as 16 bit little endian PCM.
+	 */
+	private static AudioInputStream open(Path file) throws IOException, UnsupportedAudioFileException {
+		final InputStream      in     = new BufferedInputStream(Files.newInputStream(file));
+		final AudioInputStream audio  = AudioSystem.getAudioInputStream(in);
+		final AudioFormat      format = audio.getFormat();
+		final AudioFormat      pcm    = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 8 * SAMPLE_SZ, 
+				format.getChannels(), SAMPLE_SZ * format.getChannels(), format.getSampleRate(), false);
+		return pcm.matches(format) ? audio : AudioSystem.getAudioInputStream(pcm, audio);
+	}
+
+	/**
+	 * Append the received data of recv to out.
+	 */
+	private static void drain(AbstractReceiver recv, ByteBuffer chunk, ByteArrayOutputStream out) {
+		while(recv.drainData(chunk) > 0) {
+			out.write(chunk.array(), 0, chunk.position());
+			chunk.clear();
+		}
+	}
+
+	/**
+	 * Fill buffer from in.
+	 * @return Number of bytes read, less than buffer.length only at the end of the stream.
+	 */
+	private static int read(InputStream in, byte[] buffer) throws IOException {
+		int result = 0;
+		for(int n; result < buffer.length && (n = in.read(buffer, result, buffer.length - result)) > 0;)
+			result += n;
+		return result;
+	}
+
+	/**
+	 * Create the executor: one virtual thread per file if available (Java 21 or later), 
+	 * a pool of concurrency threads otherwise.
+	 */
+	private ExecutorService executor() {
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch(ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(concurrency);
+		}
+	}
+
+	/**
+	 * Decode files, at most concurrency at the same time. Returns after all files are decoded.
+	 * @param files The wav files.
+	 * @param sink Receives the result of each file as soon as it is decoded. Calls are serialized,
+	 * the order is the order of completion.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public void decode(List<Path> files, Consumer<Result> sink) throws InterruptedException {
+		final Semaphore       permits  = new Semaphore(concurrency);
+		final ExecutorService executor = executor();
+		try {
+			for(Path file : files) {
+				/* Files are opened when a permit is available, not all at once. */
+				permits.acquire();
+				executor.execute(() -> {
+					try {
+						final Result result = decode(file);
+						synchronized(sink) {
+							sink.accept(result);
+						}
+					} finally {
+						permits.release();
+					}
+				});
+			}
+		} finally {
+			executor.shutdown();
+			permits.acquire(concurrency);
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	/**
+	 * Find the files to decode.
+	 * @param pattern A directory for all wav files in it, or a file name which may contain 
+	 * glob patterns, e.g. "recordings/**&#47;*_recv.wav".
+	 * @return The sorted paths.
+	 * @throws IOException If a directory cannot be read.
+	 */
+	public static List<Path> files(String pattern) throws IOException {
+		Path   dir  = Paths.get(pattern);
+		String glob = "*.wav";
+		if(!(Files.isDirectory(dir))) {
+			/* Split into the directory before the first wildcard and the pattern relative to it. */
+			int wildcard = pattern.length();
+			for(char c : WILDCARDS.toCharArray())
+				if(pattern.indexOf(c) >= 0) wildcard = Math.min(wildcard, pattern.indexOf(c));
+			final int sep = Math.max(pattern.lastIndexOf('/', wildcard), pattern.lastIndexOf(File.separatorChar, wildcard));
+			dir  = Paths.get(sep < 0 ? "" : pattern.substring(0, sep + 1));
+			glob = pattern.substring(sep + 1);
+		}
+		final Path        base    = dir;
+		final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+		List<Path> result = new ArrayList<>();
+		try(Stream<Path> paths = Files.walk(base.toAbsolutePath())) {
+			paths.filter(p -> Files.isRegularFile(p) && matcher.matches(base.toAbsolutePath().relativize(p))).forEach(result::add);
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Decode wav files and print one line per file: file, sampling frequency, channels,
+	 * duration in seconds, decoded bytes, byte errors and decoding time in ms.
+	 * 
+	 * @param args First argument is the modem name as for Main, e.g. "QAM", second a directory 
+	 * or glob pattern (see files()). Options: "-threads n" decodes at most n files at a time 
+	 * (default all cores), "-ref file" counts the byte errors against the contents of file,
+	 * "-out dir" writes the decoded data of each file to dir/&lt;name&gt;.bin.
+	 * @throws Exception Upon error.
+	 */
+	public static void main(String[] args) throws Exception {
+		int    threads   = Runtime.getRuntime().availableProcessors();
+		byte[] reference = null;
+		Path   out       = null;
+		for(int i = 2; i + 1 < args.length; i += 2) {
+			if("-threads".equals(args[i])) threads   = Integer.parseInt(args[i + 1]);
+			if("-ref".equals(args[i]))     reference = Files.readAllBytes(Paths.get(args[i + 1]));
+			if("-out".equals(args[i]))     out       = Files.createDirectories(Paths.get(args[i + 1]));
+		}
+
+		final List<Path>  files  = files(args[1]);
+		final Path        dir    = out;
+		final PrintStream stdout = System.out;
+		final long[]      totals = new long[3];
+		long time = System.nanoTime();
+		new BatchDecoder(args[0], threads, reference).decode(files, result -> {
+			stdout.println(result);
+			totals[0] += result.failure == null ? 0 : 1;
+			totals[1] += result.data.length;
+			totals[2] += Math.round(result.duration * 1000);
+			if(dir != null && result.failure == null) {
+				try {
+					Files.write(dir.resolve(result.file.getFileName() + ".bin"), result.data);
+				} catch(IOException e) {
+					stdout.println(result.file + "\twrite failed: " + e);
+				}
+			}
+		});
+		time = System.nanoTime() - time;
+		System.out.printf(Locale.ROOT, "%s: %d files (%d failed), %d bytes, %.1f s audio in %.2f s on %d threads%n", 
+				args[0], files.size(), totals[0], totals[1], totals[2] / 1e3, time / 1e9, threads);
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free byte ring buffer for one producer thread and one consumer thread,
+ * e.g. the render thread of a receiver and the thread pulling its data. Each index is
+ * written by one side only and published with a volatile write after the bytes, so
+ * neither side takes a lock. Producer or consumer may change threads as long as the
+ * hand-over establishes happens-before, e.g. through a fork/join task. A GROW buffer is
+ * replaced by a copy of twice the size when full. The producer never writes the old 
+ * array again, thus a consumer still reading it sees consistent bytes.
+ * 
+ * @author agent
+ *
+ */
+public final class ByteRing {
+	/**
+	 * What put() does if the buffer is full.
+	 */
+	public enum Overflow {
+		/** Wait until the consumer frees space. Never use this if producer and consumer are the same thread. */
+		BLOCK,
+		/** Drop the new byte and count it in getDropped(). */
+		DROP,
+		/** Throw an IllegalStateException. */
+		FAIL,
+		/** Double the capacity, up to 2^30 bytes, then throw an IllegalStateException. */
+		GROW
+	}
+
+	/* Longest wait between two checks of a BLOCK producer, in ns. */
+	private static final long MAX_PARK = 1000000;
+	/* Largest capacity. */
+	private static final int  MAX_CAPACITY = 1 << 30;
+
+	/* The bytes, replaced by the producer only, index i is at i & (buffer.length - 1). */
+	private volatile byte[] buffer;
+	/* Producer's copy of buffer, saves a volatile read per byte. */
+	private byte[]          writeBuffer;
+	private final Overflow  overflow;
+	/* Next index to write, written by the producer only. */
+	private volatile long   tail;
+	/* Next index to read, written by the consumer only. */
+	private volatile long   head;
+	/* Producer's copy of head, saves a volatile read per byte while the buffer is not full. */
+	private long            headCache;
+	/* Bytes dropped by the DROP policy. */
+	private volatile long   dropped;
+
+	/**
+	 * Create a ring buffer.
+	 * @param capacity Capacity in bytes, rounded up to a power of two.
+	 * @param overflow The policy if the buffer is full.
+	 */
+	public ByteRing(int capacity, Overflow overflow) {
+		if(capacity <= 0 || capacity > MAX_CAPACITY)
+			throw new IllegalArgumentException("Invalid capacity:" + capacity);
+		int size = 1;
+		while(size < capacity) size <<= 1;
+		this.buffer      = new byte[size];
+		this.writeBuffer = buffer;
+		this.overflow    = overflow;
+	}
+
+	/**
+	 * @return The capacity in bytes, the current one for GROW.
+	 */
+	public int capacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * @return The policy if the buffer is full.
+	 */
+	public Overflow getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * Producer: append one byte.
+	 * @param b The byte.
+	 * @return True if the byte was added, false if it was dropped.
+	 * @throws IllegalStateException If the buffer is full and the policy is FAIL, or GROW at the largest capacity.
+	 */
+	public boolean put(byte b) {
+		final long t = tail;
+		if(t - headCache == writeBuffer.length) {
+			headCache = head;
+			if(t - headCache == writeBuffer.length && !(awaitSpace(t)))
+				return false;
+		}
+		writeBuffer[(int)t & (writeBuffer.length - 1)] = b;
+		tail = t + 1;
+		return true;
+	}
+
+	/**
+	 * Replace the full buffer by a copy of twice the size. Bytes before headCache are consumed,
+	 * bytes the consumer takes meanwhile are copied needlessly but harmlessly.
+	 */
+	private void grow(long t) {
+		final byte[] buffer = writeBuffer;
+		if(buffer.length == MAX_CAPACITY)
+			throw new IllegalStateException("Buffer full:" + buffer.length + " bytes");
+		final byte[] result = new byte[2 * buffer.length];
+		for(long i = headCache; i < t; i++)
+			result[(int)i & (result.length - 1)] = buffer[(int)i & (buffer.length - 1)];
+		writeBuffer = result;
+		this.buffer = result;
+	}
+
+	/**
+	 * Apply the overflow policy to a full buffer.
+	 * @return True if space became available.
+	 */
+	private boolean awaitSpace(long t) {
+		switch(overflow) {
+		case FAIL:
+			throw new IllegalStateException("Buffer full:" + writeBuffer.length + " bytes");
+		case DROP:
+			dropped++;
+			return false;
+		case GROW:
+			grow(t);
+			return true;
+		default:
+			for(long park = 1; ; park = Math.min(park * 2, MAX_PARK)) {
+				if(Thread.currentThread().isInterrupted()) {
+					dropped++;
+					return false;
+				}
+				LockSupport.parkNanos(park);
+				headCache = head;
+				if(t - headCache < writeBuffer.length)
+					return true;
+			}
+		}
+	}
+
+	/**
+	 * @return Number of bytes available to the consumer.
+	 */
+	public int available() {
+		return (int)(tail - head);
+	}
+
+	/**
+	 * @return Number of bytes dropped, by the DROP policy or by an interrupted BLOCK producer.
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Consumer: move as many bytes as available and fitting into dst.
+	 * @param dst The destination, filled from its position.
+	 * @return Number of bytes moved.
+	 */
+	public int drain(ByteBuffer dst) {
+		final long h = head;
+		final int  n = (int)Math.min(tail - h, dst.remaining());
+		if(n == 0) return 0;
+		/* Read after tail, thus the buffer holds all bytes before tail. */
+		final byte[] buffer = this.buffer;
+		final int off   = (int)h & (buffer.length - 1);
+		final int first = Math.min(n, buffer.length - off);
+		dst.put(buffer, off, first);
+		dst.put(buffer, 0, n - first);
+		head = h + n;
+		return n;
+	}
+
+	/**
+	 * Consumer: move all available bytes.
+	 * @return The bytes, may be empty.
+	 */
+	public byte[] drain() {
+		final byte[] result = new byte[available()];
+		drain(ByteBuffer.wrap(result));
+		return result;
+	}
+}
@@ -0,0 +1,502 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.SplittableRandom;
+
+/**
+ * Pure Java version of the channel in Main: white noise, band pass and attenuation.
+ * Unlike the render program it is seeded and processes plain sample arrays, thus many
+ * channels can run in parallel with reproducible results. The band pass consists of 
+ * a first order high pass at the low and a first order low pass at the high cut-off 
+ * frequency, like BandPass(1). Interleaved channels are filtered independently and get 
+ * independent noise from per channel generators, thus the output does not depend on the block size.
+ * 
+ * Further impairments for Monte Carlo runs are off by default and enabled by their setters 
+ * before the first block. They are applied in the order a transmission experiences them:
+ * clock offset, multipath echoes and frequency offset on the way to the microphone, then
+ * the noise, band pass and gain above, then additive white Gaussian noise at a given SNR, 
+ * impulse noise and clipping at the converter. Each impairment is a separate pass over the
+ * block, disabled ones cost nothing. Their random numbers come from per channel generators 
+ * derived from the seed, one per impairment, so the output does not depend on the block size.
+ * 
+ * @author agent
+ *
+ */
+public final class Channel {
+	/* Squared coefficients of the two allpass chains of the frequency offset (Olli Niemitalo's
+	   Hilbert pair), the outputs differ by 90 degrees from 0.0003 to 0.4997 times the sampling frequency. */
+	private static final float[] HILBERT = new float[8];
+	/* State per allpass section: two inputs and two outputs back. */
+	private static final int     SECTION = 4;
+
+	static {
+		final double[] a = {0.6923878, 0.9360654322959, 0.9882295226860, 0.9987488452737,
+				0.4021921162426, 0.8561710882420, 0.9722909545651, 0.9952884791278};
+		for(int i = 0; i < a.length; i++)
+			HILBERT[i] = (float)(a[i] * a[i]);
+	}
+
+	/* Ziggurat of the AWGN (Doornik's ZIGNOR): layers, start of the tail, area per layer. */
+	private static final int      ZIG_C     = 128;
+	private static final double   ZIG_R     = 3.442619855899;
+	private static final double   ZIG_V     = 9.91256303526217e-3;
+	/* Right edges of the layers and the ratio of the next to the own edge. */
+	private static final double[] ZIG_X     = new double[ZIG_C + 1];
+	private static final double[] ZIG_RATIO = new double[ZIG_C];
+
+	static {
+		double f = Math.exp(-0.5 * ZIG_R * ZIG_R);
+		ZIG_X[0] = ZIG_V / f;
+		ZIG_X[1] = ZIG_R;
+		for(int i = 2; i < ZIG_C; i++) {
+			ZIG_X[i] = Math.sqrt(-2 * Math.log(ZIG_V / ZIG_X[i - 1] + f));
+			f        = Math.exp(-0.5 * ZIG_X[i] * ZIG_X[i]);
+		}
+		for(int i = 0; i < ZIG_C; i++)
+			ZIG_RATIO[i] = ZIG_X[i + 1] / ZIG_X[i];
+	}
+
+	/* Filter coefficients. */
+	private final float hp;
+	private final float lp;
+	/* Noise amplitude and gain. */
+	private final float noise;
+	private final float gain;
+	/* Noise generator per channel. */
+	private final SplittableRandom[] random;
+	/* Filter state per channel: previous input, high pass and low pass output. */
+	private final float[] x;
+	private final float[] h;
+	private final float[] l;
+	private final float   samplingFrequency;
+	/* Generators of the AWGN and the impulse noise per channel. */
+	private final SplittableRandom[] awgnRandom;
+	private final SplittableRandom[] impulseRandom;
+
+	/* Clock offset: read position advance per sample, initial lead, history per channel. */
+	private double    clockStep = 1;
+	private int       clockLead;
+	private float[][] clockHistory;
+	private long[]    clockWritten;
+	private double[]  clockPos;
+
+	/* Multipath: echo delays in samples and gains, delay line per channel. */
+	private int[]     echoDelays;
+	private float[]   echoGains;
+	private float[][] echoHistory;
+	private int[]     echoPos;
+
+	/* Frequency offset: oscillator and allpass state per channel, the last value delays the first chain. */
+	private NCO[]     shift;
+	private float[][] shiftState;
+
+	/* AWGN standard deviation. */
+	private float     sigma;
+
+	/* Impulse noise: mean distance in samples, amplitude, samples to the next impulse per channel. */
+	private double    impulseGap;
+	private float     impulseAmp;
+	private long[]    impulseNext;
+
+	/* Clipping level, 0 for none. */
+	private float     clip;
+
+	/**
+	 * Create a channel.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param low Lower cut-off frequency.
+	 * @param high Upper cut-off frequency.
+	 * @param noise Amplitude of the white noise, as WhiteNoise "gain".
+	 * @param gain Attenuation, as AudioGain "gain".
+	 * @param seed Seed of the noise.
+	 */
+	public Channel(float samplingFrequency, float low, float high, float noise, float gain, long seed) {
+		this(samplingFrequency, low, high, noise, gain, seed, 1);
+	}
+
+	/**
+	 * Create a channel for interleaved samples.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param low Lower cut-off frequency.
+	 * @param high Upper cut-off frequency.
+	 * @param noise Amplitude of the white noise, as WhiteNoise "gain".
+	 * @param gain Attenuation, as AudioGain "gain".
+	 * @param seed Seed of the noise.
+	 * @param channels Number of interleaved audio channels.
+	 */
+	public Channel(float samplingFrequency, float low, float high, float noise, float gain, long seed, int channels) {
+		this.hp     = (float)(1 / (1 + 2 * Math.PI * low / samplingFrequency));
+		this.lp     = (float)Math.exp(-2 * Math.PI * high / samplingFrequency);
+		this.noise  = noise;
+		this.gain   = gain;
+		this.random = new SplittableRandom[channels];
+		this.x      = new float[channels];
+		this.h      = new float[channels];
+		this.l      = new float[channels];
+		this.samplingFrequency = samplingFrequency;
+		this.awgnRandom        = new SplittableRandom[channels];
+		this.impulseRandom     = new SplittableRandom[channels];
+		/* Independent of random, thus the noise above stays the same with impairments. */
+		final SplittableRandom root = new SplittableRandom(~seed);
+		for(int c = 0; c < channels; c++) {
+			awgnRandom[c]    = root.split();
+			impulseRandom[c] = root.split();
+		}
+		/* The first channel keeps the noise of a single channel. */
+		random[0] = new SplittableRandom(seed);
+		for(int c = 1; c < channels; c++)
+			random[c] = root.split();
+	}
+
+	/**
+	 * Create the channel of Main.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param gain Attenuation.
+	 * @param seed Seed of the noise.
+	 */
+	public Channel(float samplingFrequency, float gain, long seed) {
+		this(samplingFrequency, Main.LOW_FREQ, Main.HIGH_FREQ, Main.NOISE, gain, seed);
+	}
+
+	/**
+	 * Add white Gaussian noise after the gain.
+	 * @param snr Signal to noise ratio in dB.
+	 * @param signalPower Mean square of the signal at the channel input, e.g. from power().
+	 */
+	public void setSNR(float snr, float signalPower) {
+		sigma = (float)(gain * Math.sqrt(signalPower / Math.pow(10, snr / 10)));
+	}
+
+	/**
+	 * Add echoes to the direct path.
+	 * @param delays Echo delays in seconds.
+	 * @param gains Echo gains relative to the direct path.
+	 */
+	public void setMultipath(float[] delays, float[] gains) {
+		if(delays.length != gains.length)
+			throw new IllegalArgumentException("Delays and gains differ in length: " + delays.length + "/" + gains.length);
+		echoDelays = new int[delays.length];
+		int max = 0;
+		for(int i = 0; i < delays.length; i++) {
+			echoDelays[i] = Math.round(delays[i] * samplingFrequency);
+			if(echoDelays[i] < 1)
+				throw new IllegalArgumentException("Echo delay below one sample: " + delays[i]);
+			max = Math.max(max, echoDelays[i]);
+		}
+		echoGains   = gains.clone();
+		echoHistory = new float[x.length][Integer.highestOneBit(max) << 1];
+		echoPos     = new int[x.length];
+	}
+
+	/**
+	 * Shift the spectrum, e.g. to model a Doppler shift or a heterodyne path.
+	 * @param offset Frequency offset in Hz, may be negative.
+	 */
+	public void setFrequencyOffset(float offset) {
+		shift      = new NCO[x.length];
+		shiftState = new float[x.length][HILBERT.length * SECTION + 1];
+		for(int c = 0; c < x.length; c++)
+			shift[c] = new NCO(offset, samplingFrequency);
+	}
+
+	/**
+	 * Play the signal at a slightly different sampling frequency than it was recorded at,
+	 * as a sender and a receiver with independent clocks do. The output keeps the length of 
+	 * the input, the drift is a time-varying fractional delay. Since a fast sender needs 
+	 * samples ahead of the current one, the output is delayed by the drift over the duration. 
+	 * After the duration, the drift stops.
+	 * @param ppm Offset of the sender clock in parts per million, positive if it is fast.
+	 * @param duration Longest transmission in seconds the offset has to hold for.
+	 */
+	public void setClockOffset(float ppm, float duration) {
+		final double drift = Math.abs(ppm) * 1e-6 * duration * samplingFrequency;
+		clockStep    = 1 + ppm * 1e-6;
+		/* Two samples ahead for the interpolation. */
+		clockLead    = (ppm > 0 ? (int)Math.ceil(drift) : 0) + 2;
+		clockHistory = new float[x.length][Integer.highestOneBit((int)Math.ceil(drift) + clockLead + 4) << 1];
+		clockWritten = new long[x.length];
+		clockPos     = new double[x.length];
+		for(int c = 0; c < x.length; c++)
+			clockPos[c] = -clockLead;
+	}
+
+	/**
+	 * Add impulse noise: single samples of the given amplitude and random sign, at random
+	 * times with the given mean rate.
+	 * @param rate Mean number of impulses per second.
+	 * @param amplitude Amplitude of the impulses.
+	 */
+	public void setImpulseNoise(float rate, float amplitude) {
+		impulseGap  = samplingFrequency / rate;
+		impulseAmp  = amplitude;
+		impulseNext = new long[x.length];
+		for(int c = 0; c < x.length; c++)
+			impulseNext[c] = gap(c);
+	}
+
+	/**
+	 * Clip the output as an overdriven converter does.
+	 * @param level Clipping level, 0 for none.
+	 */
+	public void setClipping(float level) {
+		clip = level;
+	}
+
+	/**
+	 * @param samples The samples.
+	 * @param off Offset into samples.
+	 * @param len Number of samples.
+	 * @return The mean square of the samples.
+	 */
+	public static float power(float[] samples, int off, int len) {
+		return len == 0 ? 0 : DSP.INSTANCE.energy(samples, off, len) / len;
+	}
+
+	/**
+	 * Pass a block of samples through the channel. The filter state is kept between 
+	 * calls, src and dst may be the same array.
+	 * @param src Source samples.
+	 * @param off Offset into src.
+	 * @param len Number of samples, a multiple of the number of channels.
+	 * @param dst Destination for the channel output.
+	 * @param dstOff Offset into dst.
+	 */
+	public void process(float[] src, int off, int len, float[] dst, int dstOff) {
+		/* Impairments before the noise work in place in dst. */
+		if(clockHistory != null) {
+			clock(src, off, len, dst, dstOff);
+			src = dst;
+			off = dstOff;
+		}
+		if(echoHistory != null) {
+			multipath(src, off, len, dst, dstOff);
+			src = dst;
+			off = dstOff;
+		}
+		if(shift != null) {
+			shift(src, off, len, dst, dstOff);
+			src = dst;
+			off = dstOff;
+		}
+
+		final float hp    = this.hp;
+		final float lp    = this.lp;
+		final float noise = this.noise * 2;
+		final int   n     = this.x.length;
+		for(int c = 0; c < n; c++) {
+			final SplittableRandom random = this.random[c];
+			float x = this.x[c];
+			float h = this.h[c];
+			float l = this.l[c];
+			for(int i = c; i < len; i += n) {
+				final float v = src[off + i] + (float)(random.nextDouble() - 0.5) * noise;
+				h = hp * (h + v - x);
+				x = v;
+				l = (1 - lp) * h + lp * l;
+				dst[dstOff + i] = l * gain;
+			}
+			this.x[c] = x;
+			this.h[c] = h;
+			this.l[c] = l;
+		}
+
+		if(sigma > 0)
+			awgn(dst, dstOff, len);
+		if(impulseNext != null)
+			impulses(dst, dstOff, len);
+		if(clip > 0)
+			clip(dst, dstOff, len);
+	}
+
+	/**
+	 * Pass samples through the channel in place.
+	 * @param samples The samples.
+	 * @return samples.
+	 */
+	public float[] process(float[] samples) {
+		process(samples, 0, samples.length, samples, 0);
+		return samples;
+	}
+
+	/**
+	 * Resample at the read positions of the clock offset with cubic (Catmull-Rom) interpolation.
+	 */
+	private void clock(float[] src, int off, int len, float[] dst, int dstOff) {
+		final int n = x.length;
+		for(int c = 0; c < n; c++) {
+			final float[] history = clockHistory[c];
+			final int     mask    = history.length - 1;
+			long          written = clockWritten[c];
+			double        pos     = clockPos[c];
+			for(int i = c; i < len; i += n) {
+				history[(int)written & mask] = src[off + i];
+				written++;
+				/* Keep the read position within the history after the duration. */
+				pos = Math.max(written - history.length + 2, Math.min(written - 3, pos));
+				final long  p  = (long)Math.floor(pos);
+				final float t  = (float)(pos - p);
+				final float y0 = history[(int)(p - 1) & mask];
+				final float y1 = history[(int)p & mask];
+				final float y2 = history[(int)(p + 1) & mask];
+				final float y3 = history[(int)(p + 2) & mask];
+				dst[dstOff + i] = y1 + 0.5f * t * (y2 - y0 + t * (2 * y0 - 5 * y1 + 4 * y2 - y3 + t * (3 * (y1 - y2) + y3 - y0)));
+				pos += clockStep;
+			}
+			clockWritten[c] = written;
+			clockPos[c]     = pos;
+		}
+	}
+
+	/**
+	 * Add the echoes to the direct path.
+	 */
+	private void multipath(float[] src, int off, int len, float[] dst, int dstOff) {
+		final int n = x.length;
+		for(int c = 0; c < n; c++) {
+			final float[] history = echoHistory[c];
+			final int     mask    = history.length - 1;
+			int           pos     = echoPos[c];
+			for(int i = c; i < len; i += n) {
+				final float v = src[off + i];
+				history[pos] = v;
+				float y = v;
+				for(int e = 0; e < echoDelays.length; e++)
+					y += echoGains[e] * history[(pos - echoDelays[e]) & mask];
+				dst[dstOff + i] = y;
+				pos = (pos + 1) & mask;
+			}
+			echoPos[c] = pos;
+		}
+	}
+
+	/**
+	 * Single sideband frequency shift: Re((i + j * q) * exp(j * w * t)), where i and q are the
+	 * outputs of the allpass chains, a delayed and a Hilbert transformed version of the input.
+	 */
+	private void shift(float[] src, int off, int len, float[] dst, int dstOff) {
+		final int n    = x.length;
+		final int last = HILBERT.length * SECTION;
+		for(int c = 0; c < n; c++) {
+			final float[] state = shiftState[c];
+			final NCO     nco   = shift[c];
+			for(int i = c; i < len; i += n) {
+				float a = src[off + i];
+				float b = a;
+				for(int s = 0; s < HILBERT.length / 2; s++)
+					a = allpass(state, s, a);
+				for(int s = HILBERT.length / 2; s < HILBERT.length; s++)
+					b = allpass(state, s, b);
+				dst[dstOff + i] = state[last] * nco.cos() + b * nco.sin();
+				state[last] = a;
+				nco.advance(1);
+			}
+		}
+	}
+
+	/**
+	 * Second order allpass section y(t) = a^2 * (x(t) + y(t-2)) - x(t-2).
+	 */
+	private static float allpass(float[] state, int s, float x) {
+		final int   o = s * SECTION;
+		final float y = HILBERT[s] * (x + state[o + 3]) - state[o + 1];
+		state[o + 1] = state[o];
+		state[o]     = x;
+		state[o + 3] = state[o + 2];
+		state[o + 2] = y;
+		return y;
+	}
+
+	/**
+	 * @return A standard normal random number, ziggurat method. Most calls take one random long.
+	 */
+	private static double gauss(SplittableRandom random) {
+		for(;;) {
+			/* Low bits select the layer, the upper 53 bits are a uniform number in [-1,1). */
+			final long   r = random.nextLong();
+			final int    i = (int)r & (ZIG_C - 1);
+			final double u = (r >> 11) * 0x1.0p-52;
+			if(Math.abs(u) < ZIG_RATIO[i])
+				return u * ZIG_X[i];
+			if(i == 0)
+				return tail(random, u < 0);
+			final double x  = u * ZIG_X[i];
+			final double f0 = Math.exp(-0.5 * (ZIG_X[i] * ZIG_X[i] - x * x));
+			final double f1 = Math.exp(-0.5 * (ZIG_X[i + 1] * ZIG_X[i + 1] - x * x));
+			if(f1 + random.nextDouble() * (f0 - f1) < 1)
+				return x;
+		}
+	}
+
+	/**
+	 * @return A standard normal random number beyond ZIG_R.
+	 */
+	private static double tail(SplittableRandom random, boolean negative) {
+		double x, y;
+		do {
+			x = Math.log(1 - random.nextDouble()) / ZIG_R;
+			y = Math.log(1 - random.nextDouble());
+		} while(-2 * y < x * x);
+		return negative ? x - ZIG_R : ZIG_R - x;
+	}
+
+	private void awgn(float[] dst, int dstOff, int len) {
+		final int   n     = x.length;
+		final float sigma = this.sigma;
+		for(int c = 0; c < n; c++) {
+			final SplittableRandom random = awgnRandom[c];
+			for(int i = c; i < len; i += n)
+				dst[dstOff + i] += sigma * (float)gauss(random);
+		}
+	}
+
+	/**
+	 * @return Samples to the next impulse of channel c, exponentially distributed.
+	 */
+	private long gap(int c) {
+		return 1 + (long)(-Math.log(1 - impulseRandom[c].nextDouble()) * impulseGap);
+	}
+
+	private void impulses(float[] dst, int dstOff, int len) {
+		final int n      = x.length;
+		final int frames = len / n;
+		for(int c = 0; c < n; c++) {
+			/* Jump from impulse to impulse, i counts samples of this channel. */
+			long i = impulseNext[c] - 1;
+			for(; i < frames; i += gap(c))
+				dst[dstOff + (int)i * n + c] += impulseRandom[c].nextBoolean() ? impulseAmp : -impulseAmp;
+			impulseNext[c] = i - frames + 1;
+		}
+	}
+
+	private void clip(float[] dst, int dstOff, int len) {
+		final float clip = this.clip;
+		for(int i = dstOff; i < dstOff + len; i++)
+			dst[i] = Math.max(-clip, Math.min(clip, dst[i]));
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Rate 1/2 convolutional code with constraint length 7 (generators 171 and 133 octal) and a
+ * hard decision Viterbi decoder. Each block is terminated with six zero bits, thus the 
+ * decoder traces back from the zero state. Random bit errors are corrected well, byte 
+ * bursts are not, combine it with ReedSolomon for bursty channels.
+ * 
+ * @author agent
+ *
+ */
+public final class ConvolutionalCode extends FEC {
+	/* Constraint length and number of encoder states. */
+	private static final int   K      = 7;
+	private static final int   STATES = 1 << (K - 1);
+	/* Generator polynomials. */
+	private static final int   G1     = 0171;
+	private static final int   G2     = 0133;
+	/* Default data bytes per block. */
+	private static final int   BLOCK  = 256;
+	/* Initial path metric of the states other than zero. */
+	private static final int   INF    = 1 << 24;
+
+	/* Two output bits of the shift register contents (input bit in bit 6). */
+	private static final int[] OUT    = new int[2 * STATES];
+
+	static {
+		for(int reg = 0; reg < OUT.length; reg++)
+			OUT[reg] = (Integer.bitCount(reg & G1) & 1) << 1 | (Integer.bitCount(reg & G2) & 1);
+	}
+
+	private final int    dataSize;
+	private final int    steps;
+	/* Path metrics of the previous and current step. */
+	private int[]        metric = new int[STATES];
+	private int[]        next   = new int[STATES];
+	/* Survivor decisions, one bit per state and step. */
+	private final long[] decisions;
+
+	/**
+	 * Create a code with 256 data bytes per block.
+	 */
+	public ConvolutionalCode() {
+		this(BLOCK);
+	}
+
+	/**
+	 * Create a code.
+	 * @param dataSize Data bytes per block.
+	 */
+	public ConvolutionalCode(int dataSize) {
+		if(dataSize <= 0)
+			throw new IllegalArgumentException("Invalid block size " + dataSize);
+		this.dataSize  = dataSize;
+		this.steps     = 8 * dataSize + K - 1;
+		this.decisions = new long[steps];
+	}
+
+	@Override
+	public int getDataSize() {
+		return dataSize;
+	}
+
+	@Override
+	public int getCodeSize() {
+		return (2 * steps + 7) / 8;
+	}
+
+	@Override
+	public void encode(byte[] src, int srcOff, byte[] dst, int dstOff) {
+		final int codeSize = getCodeSize();
+		for(int i = 0; i < codeSize; i++)
+			dst[dstOff + i] = 0;
+		int state = 0;
+		for(int step = 0; step < steps; step++) {
+			final int bit = step < 8 * dataSize ? (src[srcOff + (step >> 3)] >> (7 - (step & 7))) & 1 : 0;
+			final int reg = bit << (K - 1) | state;
+			final int out = OUT[reg];
+			dst[dstOff + (step >> 2)] |= out << (6 - 2 * (step & 3));
+			state = reg >> 1;
+		}
+	}
+
+	@Override
+	public int decode(byte[] src, int srcOff, byte[] dst, int dstOff) {
+		for(int s = 0; s < STATES; s++)
+			metric[s] = s == 0 ? 0 : INF;
+
+		/* Add-compare-select. The predecessors of state ns are (ns << 1 | x) & 63, x = 0, 1. */
+		for(int step = 0; step < steps; step++) {
+			final int recv = (src[srcOff + (step >> 2)] >> (6 - 2 * (step & 3))) & 3;
+			long decision = 0;
+			for(int ns = 0; ns < STATES; ns++) {
+				final int reg0 = ns << 1;
+				final int reg1 = reg0 | 1;
+				final int m0   = metric[reg0 & (STATES - 1)] + Integer.bitCount(OUT[reg0] ^ recv);
+				final int m1   = metric[reg1 & (STATES - 1)] + Integer.bitCount(OUT[reg1] ^ recv);
+				if(m1 < m0) {
+					next[ns]  = m1;
+					decision |= 1L << ns;
+				} else
+					next[ns]  = m0;
+			}
+			decisions[step] = decision;
+			final int[] t = metric; metric = next; next = t;
+		}
+
+		/* Trace back from the zero state, the input bit of each step is the top bit of the state. */
+		for(int i = 0; i < dataSize; i++)
+			dst[dstOff + i] = 0;
+		int state = 0;
+		for(int step = steps - 1; step >= 0; step--) {
+			if(step < 8 * dataSize)
+				dst[dstOff + (step >> 3)] |= (state >> (K - 2)) << (7 - (step & 7));
+			state = (state << 1 | (int)(decisions[step] >>> state) & 1) & (STATES - 1);
+		}
+		return metric[0];
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Inner loops of the receivers: energy, dot product, complex mix-down and the Goertzel 
+ * filter bank. The implementation is selected once at startup: VectorDSP (SIMD through 
+ * jdk.incubator.vector, in the vector source folder) if it is on the class path and the 
+ * module is enabled, ScalarDSP otherwise. The system property "tvver.dsp" forces one 
+ * of them by name. Implementations are stateless and thread safe.
+ * 
+ * @author agent
+ *
+ */
+public abstract class DSP {
+	private static final String VECTOR = DSP.class.getPackage().getName() + ".VectorDSP";
+
+	/** The selected implementation. */
+	public static final DSP INSTANCE = select();
+
+	private static DSP select() {
+		final String name = System.getProperty("tvver.dsp");
+		if(name != null)
+			return forName(name);
+		try {
+			return forName("vector");
+		} catch(IllegalArgumentException e) {
+			return new ScalarDSP();
+		}
+	}
+
+	/**
+	 * @return The short name of this implementation.
+	 */
+	public abstract String getName();
+
+	/**
+	 * @param x The samples.
+	 * @param off Offset of the first sample.
+	 * @param len Number of samples.
+	 * @return The sum of squares.
+	 */
+	public abstract float energy(float[] x, int off, int len);
+
+	/**
+	 * @param a First vector.
+	 * @param aOff Offset into a.
+	 * @param b Second vector.
+	 * @param bOff Offset into b.
+	 * @param len Number of elements.
+	 * @return The sum of a[aOff + i] * b[bOff + i].
+	 */
+	public abstract float dot(float[] a, int aOff, float[] b, int bOff, int len);
+
+	/**
+	 * Mix samples down with a carrier and integrate: the correlation with the in-phase and 
+	 * quadrature templates of equal length.
+	 * @param x The samples.
+	 * @param off Offset of the first sample.
+	 * @param cos In-phase template, len elements from index 0.
+	 * @param sin Quadrature template, len elements from index 0.
+	 * @param len Number of samples.
+	 * @param iq Destination, iq[0] is the correlation with cos, iq[1] with sin.
+	 */
+	public abstract void mix(float[] x, int off, float[] cos, float[] sin, int len, float[] iq);
+
+	/**
+	 * Run a bank of Goertzel filters over samples: s0 = coeff * s1 - s2 + x per filter.
+	 * @param x The samples.
+	 * @param off Offset of the first sample.
+	 * @param len Number of samples.
+	 * @param coeff The filter coefficients.
+	 * @param s1 Filter state, updated in place.
+	 * @param s2 Filter state, updated in place.
+	 */
+	public abstract void goertzel(float[] x, int off, int len, float[] coeff, float[] s1, float[] s2);
+
+	/**
+	 * Create an implementation by its short name.
+	 * @param name "scalar" or "vector".
+	 * @return The implementation.
+	 * @throws IllegalArgumentException If the name is unknown or the implementation is not available.
+	 */
+	public static DSP forName(String name) {
+		switch(name) {
+		case "scalar": return new ScalarDSP();
+		case "vector":
+			try {
+				return (DSP)Class.forName(VECTOR).getConstructor().newInstance();
+			} catch(ReflectiveOperationException | LinkageError e) {
+				throw new IllegalArgumentException("DSP '" + name + "' not available: " + e);
+			}
+		default:       throw new IllegalArgumentException("Unknown DSP '" + name + "'");
+		}
+	}
+}
@@ -28,89 +28,128 @@
  */
 package ch.fhnw.tvver;
 
-import ch.fhnw.ether.audio.AudioUtilities;
-import ch.fhnw.ether.audio.IAudioRenderTarget;
-import ch.fhnw.ether.audio.fx.BandsButterworth;
-import ch.fhnw.ether.media.RenderCommandException;
-import ch.fhnw.ether.media.Stateless;
-
 /**
  * A simple receiver which is using DTMF (dual tone multi frequency) encoding for data.
  * A DTMF signal can hold 4bit of information thus two DTMF signal are used for each byte.
+ * Tones are detected by Goertzel filter banks, independent of the audio frame size. 
+ * A bank on short fixed-size blocks tells signals from pauses. A second bank integrates 
+ * from the first block of a signal to its last one, thus its resolution is set by the 
+ * duration of the signal rather than by the block size. Over a signal of DTMFSender.TONE 
+ * seconds the low frequencies, only 73 Hz apart, leak about a tenth into their neighbours, 
+ * the high frequencies at most a fifth.
  * 
  * @author sschubiger
  */
 public class DTMFReceiver extends AbstractReceiver {
-	/* Experimental threshold for detecting start tone. Should be adaptive. */
-	private static final float START_THRESH = 0.1f;
-	
-	/**
-	 * Create filters for DTMF frequencies.
-	 */
-	private final BandsButterworth bands = new BandsButterworth(1, 10, true,
+	/* Threshold for the tone amplitudes, relative to their mean during pauses. */
+	private static final float START_THRESH = 4f;
+	/** Block duration in seconds. A pause of two blocks holds at least one complete block, a single block above the threshold is taken for noise. */
+	static final double BLOCK = 0.0025;
+
+	/** DTMF frequencies. */
+	static final float[] FREQS = {
 			697,  770, 852, 941, // DTMF low frequencies (rows)
 			1209,1336,1477,1633  // DTMF high frequencies (colums)
-			);
-	
-	/** The power values computed by the filters. */
-	private final float[] power = new float[8];
-	/** index into the tone phase of the transmission */
-	private int           dtmfSignal  = 0;
+	};
+
+	/** Filter bank for DTMF frequencies on blocks. */
+	private Goertzel      bands;
+	/** Filter bank for DTMF frequencies over the current DTMF signal. */
+	private Goertzel      tone;
+	/** The amplitudes computed by the filters. */
+	private final float[] amplitude = new float[8];
+	/** The amplitudes of the DTMF signal up to its last block. */
+	private final float[] toneAmplitude = new float[8];
+	/** Number of blocks of the current DTMF signal, 0 during pauses. */
+	private int           signal;
+	/** Number of samples per block. */
+	private int           blockSz;
 	/** Accumulator for the data. */
 	private int           data  = 0;
 	/** Toggle indicating if the low or high nibble of data is active. */
 	private boolean       lowHigh;
 	
 	/**
-	 * Add the bands filter to the audio pipeline.
+	 * Create the filter banks for the sampling frequency.
 	 */
 	@Override
 	public void init(float samplingFrequency) {
 		super.init(samplingFrequency);
-		insert(bands);
+		bands   = new Goertzel(samplingFrequency, FREQS);
+		tone    = new Goertzel(samplingFrequency, FREQS);
+		blockSz = (int)(BLOCK * samplingFrequency);
+		/* The noise floor is tracked on the tone amplitudes of each block. */
+		level.init((float)(1 / BLOCK));
+	}
+
+	/**
+	 * @param amplitude Amplitudes of the DTMF frequencies.
+	 * @param group 0 for the low frequencies, 4 for the high frequencies.
+	 * @return Index of the strongest frequency in the group, 0..3.
+	 */
+	private static int peak(float[] amplitude, int group) {
+		int result = 0;
+		for(int i = 1; i < 4; i++)
+			if(amplitude[group + i] > amplitude[group + result]) result = i;
+		return result;
 	}
 	
 	/**
-	 * Process one audio frame. Note that this implementation assumes for simplicity that
-	 * a DTMF signal stretches over multiple frames. In order to run with arbitrary frame 
-	 * sizes, a buffering should be used (@see ch.fhnw.ether.audio.BlockBuffer).
+	 * Process one block. While a DTMF signal is present, the amplitudes integrated over 
+	 * the signal are kept. The signal is decoded from them as soon as the pause starts.
 	 */
-	@Override
-	protected void run(Stateless<IAudioRenderTarget> state) throws RenderCommandException {
-		/* If energy exceeds a threshold (constant found experimentally, should be adaptive), consider it as a DTMF signal. */
-		if(AudioUtilities.energy(state.getTarget().getFrame().samples) > START_THRESH) {
-			/* count dtmfSignals and let filters stabilize a bit before reading the power values. */
-			if(++dtmfSignal == 5) {
-				/* Get the power values from the filter bank.*/
-				bands.state().get(state.getTarget()).power(power);
-				/* Find the peak values in the low four frequencies and high four frequencies. */
-				int   lowPeakIdx  = 0;
-				int   highPeakIdx = 4;
-				for(int i = 1; i < 4; i++) {
-					if(power[i]   > power[lowPeakIdx])  lowPeakIdx  = i;
-					if(power[i+4] > power[highPeakIdx]) highPeakIdx = i + 4;
-				}
-				/* Add 4 bits of data. Two bits come from the DTMF low frequency part, two bits from the DTMF high frequency part. */
-				/* Shift data to make space for the next two bits. */
-				data <<= 2;
-				/* Add peak value.*/
-				data |= lowPeakIdx;
-				/* Shift data to make space for the next two bits. */
-				data <<= 2;
-				/* Add peak value.*/
-				data |= (highPeakIdx - 4);
-				/* if a byte is completed, add it to the receive queue. */
-				if(lowHigh)	addData((byte) data);
-				/* toggle high/low flag for the next nibble */
-				lowHigh = !lowHigh;
-			}
-		} else {
-			/* reset DTMF signal counter. */
-			dtmfSignal = 0;
+	private void block() {
+		/* Get the amplitudes from the filter bank.*/
+		bands.amplitudes(amplitude);
+		bands.reset();
+		/* The weaker of the peak values in the low four frequencies and high four frequencies. */
+		float peak = Math.min(amplitude[peak(amplitude, 0)], amplitude[4 + peak(amplitude, 4)]);
+		if(peak >= level.threshold(START_THRESH)) {
+			/* DTMF signal, integrate up to this block. */
+			signal++;
+			tone.amplitudes(toneAmplitude);
+			return;
+		}
+		/* Pause, the next signal starts with the next block. */
+		tone.reset();
+		/* A single block above the threshold is a noise peak. */
+		if(signal < 2) {
+			signal = 0;
+			level.noise(peak);
+			return;
 		}
+		/* Decode previous DTMF signal. */
+		signal = 0;
+		symbol();
+
+		/* Add 4 bits of data. Two bits come from the DTMF low frequency part, two bits from the DTMF high frequency part. */
+		/* Shift data to make space for the next two bits. */
+		data <<= 2;
+		/* Add peak value.*/
+		data |= peak(toneAmplitude, 0);
+		/* Shift data to make space for the next two bits. */
+		data <<= 2;
+		/* Add peak value.*/
+		data |= peak(toneAmplitude, 4);
+		/* if a byte is completed, add it to the receive queue. */
+		if(lowHigh)	addData((byte) data);
+		/* toggle high/low flag for the next nibble */
+		lowHigh = !lowHigh;
 	}
-	
-	/** Unused. */
+
+	/**
+	 * Process one audio frame. Samples are fed to the filter banks in blocks of 
+	 * blockSz samples, blocks may span multiple frames.
+	 */
 	@Override
-	protected void process(float[] samples) {}
+	protected void process(float[] samples) {
+		for(int i = 0; i < samples.length;) {
+			int n = Math.min(blockSz - bands.size(), samples.length - i);
+			bands.process(samples, i, n);
+			tone.process(samples, i, n);
+			i += n;
+			if(bands.size() == blockSz)
+				block();
+		}
+	}
 }
@@ -28,12 +28,13 @@
  */
 package ch.fhnw.tvver;
 
-import ch.fhnw.util.ArrayUtilities;
+import java.util.Arrays;
 
 public class DTMFSender extends AbstractSender {
-	/** DTMF signal duration in seconds (including pause between two signals). */
-	private static final double DURATION = 0.03;
-	private static final double PI2      = Math.PI * 2;
+	/** DTMF signal duration in seconds, without the pause. Sets the frequency resolution of the receiver. */
+	static final double TONE  = 0.0125;
+	/** Pause after each DTMF signal in seconds. Signal and pause must each last at least two DTMFReceiver.BLOCKs. */
+	static final double PAUSE = 0.005;
 
 	/** DTMF frequency table. Low frequency indicates row, high frequency for column. */
 	private static final float[] DTMF = {
@@ -58,6 +59,10 @@ public class DTMFSender extends AbstractSender {
 			941,1633, // D
 	};
 
+	/** Oscillators for the low and high frequency, phase continuous across signals. */
+	private final NCO low  = new NCO();
+	private final NCO high = new NCO();
+
 	/**
 	 * Synthesize one nibble as DTMF audio data.
 	 * 
@@ -66,18 +71,39 @@ public class DTMFSender extends AbstractSender {
 	 */
 	public float[] dtmf(int nibble) {
 		/* Allocate space for samples. */
-		float[] result = new float[(int)(DURATION * samplingFrequency)];
+		float[] result = new float[nibbleSize()];
+		dtmf(nibble, result, 0);
+		return result;
+	}
+
+	/**
+	 * Write one nibble as DTMF audio data.
+	 * 
+	 * @param nibble The nibble to synthesize.
+	 * @param dst Destination for the samples.
+	 * @param off Offset into dst.
+	 * @return Offset after the DTMF signal.
+	 */
+	private int dtmf(int nibble, float[] dst, int off) {
+		final int nibbleSz = nibbleSize();
+		final int toneSz   = (int)(TONE * samplingFrequency);
 
 		/* Get low and high frequncies from table */
 		float f_low  = DTMF[(nibble & 0xF) * 2 + 0];
 		float f_high = DTMF[(nibble & 0xF) * 2 + 1];
 
 		/* Generate sine waves with low and high frequencies. */
-		for(int i = 0; i < result.length / 2; i++) {
-			double t = (PI2 * i) / samplingFrequency;
-			result[i] = (float)(0.4 * (Math.sin(f_low * t) + Math.sin(f_high * t))); 
-		}
-		return result;
+		low.setFrequency(f_low, samplingFrequency);
+		high.setFrequency(f_high, samplingFrequency);
+		low.sin(dst, off, toneSz, 0.4f);
+		high.add(dst, off, toneSz, 0.4f);
+		/* Pause until the next signal. */
+		Arrays.fill(dst, off + toneSz, off + nibbleSz, 0f);
+		return off + nibbleSz;
+	}
+
+	private int nibbleSize() {
+		return (int)((TONE + PAUSE) * samplingFrequency);
 	}
 
 	/**
@@ -85,7 +111,21 @@ public class DTMFSender extends AbstractSender {
 	 */
 	@Override
 	public float[] synthesize(byte data) {
-		return ArrayUtilities.cat(dtmf(data >> 4), dtmf(data));
+		float[] result = new float[2 * nibbleSize()];
+		dtmf(data, result, dtmf(data >> 4, result, 0));
+		return result;
+	}
+
+	@Override
+	public int getNumSamples(byte[] data, int off, int len) {
+		return len * 2 * nibbleSize();
 	}
 
+	@Override
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		int pos = dstOff;
+		for(int i = off; i < off + len; i++)
+			pos = dtmf(src[i], dst, dtmf(src[i] >> 4, dst, pos));
+		return pos - dstOff;
+	}
 }
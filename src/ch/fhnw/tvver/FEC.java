@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Forward error correction on fixed size blocks. A block of getDataSize() bytes is encoded
+ * into getCodeSize() bytes and decoded back. Decoders work on preallocated tables and 
+ * buffers, thus instances are not thread safe. FECSender and FECReceiver put a code 
+ * between the payload and a modem.
+ * 
+ * @author agent
+ *
+ */
+public abstract class FEC {
+	/**
+	 * @return Number of data bytes per block.
+	 */
+	public abstract int getDataSize();
+
+	/**
+	 * @return Number of encoded bytes per block.
+	 */
+	public abstract int getCodeSize();
+
+	/**
+	 * Encode one block.
+	 * @param src The data, getDataSize() bytes starting at srcOff.
+	 * @param srcOff Offset of the first data byte in src.
+	 * @param dst The destination for getCodeSize() encoded bytes.
+	 * @param dstOff Offset of the first encoded byte in dst.
+	 */
+	public abstract void encode(byte[] src, int srcOff, byte[] dst, int dstOff);
+
+	/**
+	 * Decode one block. The data is written even if the block is not correctable.
+	 * @param src The received code, getCodeSize() bytes starting at srcOff.
+	 * @param srcOff Offset of the first encoded byte in src.
+	 * @param dst The destination for getDataSize() data bytes.
+	 * @param dstOff Offset of the first data byte in dst.
+	 * @return Number of corrected symbols, -1 if the block is known to be uncorrectable.
+	 */
+	public abstract int decode(byte[] src, int srcOff, byte[] dst, int dstOff);
+
+	/**
+	 * Create a code by its short name.
+	 * @param name "RS" for interleaved Reed-Solomon or "CC" for the convolutional code.
+	 * @return A new code instance.
+	 * @throws IllegalArgumentException If the name is unknown.
+	 */
+	public static FEC forName(String name) {
+		switch(name) {
+		case "RS": return new ReedSolomon();
+		case "CC": return new ConvolutionalCode();
+		default:   throw new IllegalArgumentException("Unknown FEC '" + name + "'");
+		}
+	}
+}
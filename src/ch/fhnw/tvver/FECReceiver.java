@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.nio.ByteBuffer;
+
+import ch.fhnw.ether.audio.IAudioRenderTarget;
+import ch.fhnw.ether.media.AbstractRenderCommand;
+
+/**
+ * Receiver decoding forward error correction after another receiver. The bytes of the 
+ * wrapped receiver are collected into blocks, each decoded block yields the payload bytes 
+ * announced by its length. Blocks are aligned to the start of the received data, thus 
+ * the wrapped receiver must neither drop nor insert bytes.
+ * 
+ * @author agent
+ *
+ */
+public class FECReceiver extends AbstractReceiver {
+	private final FEC              fec;
+	private final AbstractReceiver receiver;
+	/* The received code of the current block, its position is the number of bytes in it. */
+	private final byte[]           code;
+	private final ByteBuffer       codeBuffer;
+	/* The decoded block. */
+	private final byte[]           block;
+	/* Statistics since init(). */
+	private long                   blocks;
+	private long                   corrected;
+	private long                   failed;
+
+	/**
+	 * Create a receiver.
+	 * @param fec The code, same as the sender's.
+	 * @param receiver The receiver delivering the encoded data.
+	 */
+	public FECReceiver(FEC fec, AbstractReceiver receiver) {
+		this.fec        = fec;
+		this.receiver   = receiver;
+		this.code       = new byte[fec.getCodeSize()];
+		this.codeBuffer = ByteBuffer.wrap(code);
+		this.block      = new byte[fec.getDataSize()];
+	}
+
+	@Override
+	public void init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		receiver.init(samplingFrequency);
+		getCmds().clear();
+		for(AbstractRenderCommand<IAudioRenderTarget,?> cmd : receiver.getCmds())
+			insert(cmd);
+		codeBuffer.clear();
+		blocks    = 0;
+		corrected = 0;
+		failed    = 0;
+	}
+
+	@Override
+	protected void process(float[] samples) {
+		receiver.receive(samples);
+		/* Drain block by block, a partial block stays in code[] until the next frame. */
+		while(receiver.drainData(codeBuffer) > 0 && !(codeBuffer.hasRemaining())) {
+			codeBuffer.clear();
+			decode();
+		}
+	}
+
+	/**
+	 * Decode the block in code[] and add its payload. The payload of uncorrectable blocks is
+	 * added as well, with the full block length if the length itself is corrupt.
+	 */
+	private void decode() {
+		final int result = fec.decode(code, 0, block, 0);
+		blocks++;
+		if(result < 0) failed++;
+		else           corrected += result;
+		int n = (block[0] & 0xFF) << 8 | (block[1] & 0xFF);
+		if(n > block.length - FECSender.LENGTH)
+			n = block.length - FECSender.LENGTH;
+		for(int i = 0; i < n; i++)
+			addData(block[FECSender.LENGTH + i]);
+	}
+
+	/**
+	 * @return Number of decoded blocks.
+	 */
+	public long getBlocks() {
+		return blocks;
+	}
+
+	/**
+	 * @return Number of corrected symbols (bytes for Reed-Solomon, bits for the convolutional code).
+	 */
+	public long getCorrected() {
+		return corrected;
+	}
+
+	/**
+	 * @return Number of blocks detected as uncorrectable.
+	 */
+	public long getFailed() {
+		return failed;
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Sender applying forward error correction before another sender. The payload is split into 
+ * FEC blocks, each starting with the number of payload bytes it carries (two bytes), thus 
+ * the receiver drops the padding of the last block. The encoded blocks are passed to the 
+ * wrapped sender in groups filling its chunk size.
+ * 
+ * @author agent
+ *
+ */
+public class FECSender extends AbstractSender {
+	/** Bytes of the payload length in front of each block. */
+	static final int LENGTH = 2;
+
+	private final FEC            fec;
+	private final AbstractSender sender;
+	/* Payload bytes per block and blocks per call of the wrapped sender. */
+	private final int            payload;
+	private final int            group;
+	/* One uncoded block and the encoded blocks of one group. */
+	private final byte[]         block;
+	private final byte[]         code;
+
+	/**
+	 * Create a sender.
+	 * @param fec The code.
+	 * @param sender The sender transmitting the encoded data.
+	 */
+	public FECSender(FEC fec, AbstractSender sender) {
+		if(fec.getDataSize() <= LENGTH || fec.getDataSize() - LENGTH > 0xFFFF)
+			throw new IllegalArgumentException("FEC block size " + fec.getDataSize() + " not supported");
+		this.fec     = fec;
+		this.sender  = sender;
+		this.payload = fec.getDataSize() - LENGTH;
+		this.group   = Math.max(1, sender.getChunkSize() / fec.getCodeSize());
+		this.block   = new byte[fec.getDataSize()];
+		this.code    = new byte[group * fec.getCodeSize()];
+	}
+
+	@Override
+	public int getNumChannels() {
+		return sender.getNumChannels();
+	}
+
+	@Override
+	public float[] init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		return sender.init(samplingFrequency);
+	}
+
+	/**
+	 * Encode the blocks of one group.
+	 * @param src The payload.
+	 * @param off Offset of the first byte of the group in src.
+	 * @param len Number of bytes of the group.
+	 * @return Number of encoded bytes in code[].
+	 */
+	private int encode(byte[] src, int off, int len) {
+		int result = 0;
+		for(int pos = off; pos < off + len; pos += payload) {
+			final int n = Math.min(payload, off + len - pos);
+			block[0] = (byte)(n >> 8);
+			block[1] = (byte)n;
+			System.arraycopy(src, pos, block, LENGTH, n);
+			for(int i = LENGTH + n; i < block.length; i++)
+				block[i] = 0;
+			fec.encode(block, 0, code, result);
+			result += fec.getCodeSize();
+		}
+		return result;
+	}
+
+	/**
+	 * @param len Number of payload bytes of a group.
+	 * @return Number of encoded bytes of the group.
+	 */
+	private int codeSize(int len) {
+		return (len + payload - 1) / payload * fec.getCodeSize();
+	}
+
+	/**
+	 * Computed from the lengths without encoding, thus the number of samples of the wrapped 
+	 * sender must depend on the number of bytes only, as for all senders of this package.
+	 */
+	@Override
+	public int getNumSamples(byte[] data, int off, int len) {
+		final int rest = len % getChunkSize();
+		return (len / getChunkSize()) * sender.getNumSamples(code, 0, code.length) + (rest == 0 ? 0 : sender.getNumSamples(code, 0, codeSize(rest)));
+	}
+
+	@Override
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		int result = 0;
+		for(int pos = off; pos < off + len; pos += getChunkSize()) {
+			final int n = encode(src, pos, Math.min(getChunkSize(), off + len - pos));
+			result += sender.synthesizeInto(code, 0, n, dst, dstOff + result);
+		}
+		return result;
+	}
+
+	/**
+	 * One group of blocks, thus streamed chunks are encoded and framed as a whole transmission.
+	 */
+	@Override
+	public int getChunkSize() {
+		return group * payload;
+	}
+}
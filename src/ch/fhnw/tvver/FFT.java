@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * In-place radix-2 complex FFT with precomputed twiddle factors and bit reversal table.
+ * The inverse transform is not normalized.
+ * 
+ * @author agent
+ *
+ */
+public final class FFT {
+	private final int     n;
+	/* Bit reversal permutation. */
+	private final int[]   rev;
+	/* Twiddle factors cos / sin (2 * PI * k / n) for k < n/2. */
+	private final float[] cos;
+	private final float[] sin;
+
+	/**
+	 * Create an FFT.
+	 * @param n The transform size, must be a power of two.
+	 */
+	public FFT(int n) {
+		if(n < 2 || Integer.bitCount(n) != 1)
+			throw new IllegalArgumentException("FFT size must be a power of two:" + n);
+		this.n   = n;
+		this.rev = new int[n];
+		this.cos = new float[n / 2];
+		this.sin = new float[n / 2];
+		final int bits = Integer.numberOfTrailingZeros(n);
+		for(int i = 0; i < n; i++)
+			rev[i] = Integer.reverse(i) >>> (32 - bits);
+		for(int i = 0; i < n / 2; i++) {
+			cos[i] = (float)Math.cos((Math.PI * 2 * i) / n);
+			sin[i] = (float)Math.sin((Math.PI * 2 * i) / n);
+		}
+	}
+
+	/**
+	 * Forward transform X[k] = sum x[n] * exp(-j * 2 * PI * k * n / N).
+	 * @param re Real part, replaced by the result.
+	 * @param im Imaginary part, replaced by the result.
+	 */
+	public void forward(float[] re, float[] im) {
+		transform(re, im, -1);
+	}
+
+	/**
+	 * Inverse transform x[n] = sum X[k] * exp(j * 2 * PI * k * n / N), not normalized.
+	 * @param re Real part, replaced by the result.
+	 * @param im Imaginary part, replaced by the result.
+	 */
+	public void inverse(float[] re, float[] im) {
+		transform(re, im, 1);
+	}
+
+	private void transform(float[] re, float[] im, int sign) {
+		for(int i = 0; i < n; i++) {
+			final int j = rev[i];
+			if(j > i) {
+				float t = re[i]; re[i] = re[j]; re[j] = t;
+				t = im[i]; im[i] = im[j]; im[j] = t;
+			}
+		}
+		for(int size = 2; size <= n; size <<= 1) {
+			final int half = size >> 1;
+			final int step = n / size;
+			for(int start = 0; start < n; start += size) {
+				for(int k = 0; k < half; k++) {
+					final float wr = cos[k * step];
+					final float wi = sign * sin[k * step];
+					final int   a  = start + k;
+					final int   b  = a + half;
+					final float tr = re[b] * wr - im[b] * wi;
+					final float ti = re[b] * wi + im[b] * wr;
+					re[b] = re[a] - tr;
+					im[b] = im[a] - ti;
+					re[a] += tr;
+					im[a] += ti;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The transform size.
+	 */
+	public int size() {
+		return n;
+	}
+}
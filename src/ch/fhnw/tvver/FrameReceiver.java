@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+import ch.fhnw.ether.audio.IAudioRenderTarget;
+import ch.fhnw.ether.media.AbstractRenderCommand;
+
+/**
+ * Receiver unpacking the frames of FrameSender after another receiver. The sync word is 
+ * searched bit by bit with up to two bit errors, thus the frames are found again after
+ * the wrapped receiver dropped, inserted or shifted bits. Frames with an invalid length
+ * or CRC are dropped and the search continues one bit after their sync word, thus the 
+ * next frame is found even if the sync word was a false match.
+ * 
+ * @author agent
+ *
+ */
+public class FrameReceiver extends AbstractReceiver {
+	/* Maximum number of bit errors in a sync word. */
+	private static final int SYNC_ERRORS = 2;
+	private static final int HEADER      = FrameSender.SYNC_SZ + FrameSender.LENGTH;
+
+	private final AbstractReceiver receiver;
+	private final int              payload;
+	/* Received bytes not consumed yet and their number, input wraps buffer[] for draining the wrapped receiver. */
+	private final byte[]           buffer;
+	private final ByteBuffer       input;
+	private int                    count;
+	/* Bit position of the sync search or of the current sync word in buffer[]. */
+	private int                    scan;
+	private boolean                locked;
+	/* Length and payload of the current frame. */
+	private final byte[]           frame;
+	private final CRC32C           crc = new CRC32C();
+	/* Frame counters since init(). */
+	private long                   good;
+	private long                   bad;
+
+	/**
+	 * Create a receiver for frames of up to 256 payload bytes.
+	 * @param receiver The receiver delivering the frames.
+	 */
+	public FrameReceiver(AbstractReceiver receiver) {
+		this(receiver, FrameSender.PAYLOAD);
+	}
+
+	/**
+	 * Create a receiver.
+	 * @param receiver The receiver delivering the frames.
+	 * @param payload Maximum payload bytes per frame, same as the sender's.
+	 */
+	public FrameReceiver(AbstractReceiver receiver, int payload) {
+		this.receiver = receiver;
+		this.payload  = payload;
+		this.buffer   = new byte[2 * (HEADER + payload + FrameSender.CRC_SZ)];
+		this.input    = ByteBuffer.wrap(buffer);
+		this.frame    = new byte[FrameSender.LENGTH + payload];
+	}
+
+	@Override
+	public void init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		receiver.init(samplingFrequency);
+		getCmds().clear();
+		for(AbstractRenderCommand<IAudioRenderTarget,?> cmd : receiver.getCmds())
+			insert(cmd);
+		count  = 0;
+		scan   = 0;
+		locked = false;
+		good   = 0;
+		bad    = 0;
+	}
+
+	@Override
+	protected void process(float[] samples) {
+		receiver.receive(samples);
+		do {
+			input.position(count);
+			count += receiver.drainData(input);
+			parse();
+		} while(receiver.getAvailableData() > 0);
+	}
+
+	/**
+	 * Read bits from buffer[], bits after the last byte are zero.
+	 * @param pos Bit position.
+	 * @param n Number of bits, at most 32.
+	 * @return The bits, most significant first.
+	 */
+	private int bits(int pos, int n) {
+		final int i = pos >> 3;
+		long v = 0;
+		for(int k = 0; k < 5; k++)
+			v = v << 8 | (i + k < count ? buffer[i + k] & 0xFF : 0);
+		return (int)((v >>> (40 - (pos & 7) - n)) & ((1L << n) - 1));
+	}
+
+	/**
+	 * Find and unpack all complete frames in buffer[], then drop the consumed bytes.
+	 */
+	private void parse() {
+		for(;;) {
+			final int avail = count * 8;
+			if(!(locked)) {
+				for(; scan + 32 <= avail; scan++) {
+					if(Integer.bitCount(bits(scan, 32) ^ FrameSender.SYNC) <= SYNC_ERRORS) {
+						locked = true;
+						synced(Float.NaN);
+						break;
+					}
+				}
+				if(!(locked)) break;
+			}
+
+			final int pos = scan + 8 * FrameSender.SYNC_SZ;
+			if(pos + 8 * FrameSender.LENGTH > avail) break;
+			final int len = bits(pos, 8 * FrameSender.LENGTH);
+			if(len == 0 || len > payload) {
+				drop();
+				continue;
+			}
+			final int end = pos + 8 * (FrameSender.LENGTH + len + FrameSender.CRC_SZ);
+			if(end > avail) break;
+
+			for(int i = 0; i < FrameSender.LENGTH + len; i++)
+				frame[i] = (byte)bits(pos + 8 * i, 8);
+			crc.reset();
+			crc.update(frame, 0, FrameSender.LENGTH + len);
+			if(bits(end - 8 * FrameSender.CRC_SZ, 32) != (int)crc.getValue()) {
+				drop();
+				continue;
+			}
+			for(int i = 0; i < len; i++)
+				addData(frame[FrameSender.LENGTH + i]);
+			good++;
+			scan   = end;
+			locked = false;
+		}
+
+		/* Bits before scan are consumed or cannot start a sync word. */
+		final int consumed = scan >> 3;
+		System.arraycopy(buffer, consumed, buffer, 0, count - consumed);
+		count -= consumed;
+		scan  -= 8 * consumed;
+	}
+
+	/**
+	 * Drop the current frame and continue the search one bit after its sync word.
+	 */
+	private void drop() {
+		bad++;
+		lost();
+		scan++;
+		locked = false;
+	}
+
+	/**
+	 * @return Number of frames received with a valid CRC.
+	 */
+	public long getGoodFrames() {
+		return good;
+	}
+
+	/**
+	 * @return Number of frames dropped for an invalid length or CRC.
+	 */
+	public long getBadFrames() {
+		return bad;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.zip.CRC32C;
+
+/**
+ * Sender packing the payload into frames before another sender. A frame is the sync word,
+ * the payload length (two bytes), the payload and the CRC-32C of length and payload. 
+ * FrameReceiver finds the frames by their sync word and drops corrupt frames.
+ * 
+ * @author agent
+ *
+ */
+public class FrameSender extends AbstractSender {
+	/** Sync word in front of each frame (CCSDS attached sync marker). */
+	static final int SYNC    = 0x1ACFFC1D;
+	/** Bytes of sync word, length and CRC. */
+	static final int SYNC_SZ = 4;
+	static final int LENGTH  = 2;
+	static final int CRC_SZ  = 4;
+	/** Default maximum payload per frame. */
+	static final int PAYLOAD = 256;
+
+	private final AbstractSender sender;
+	private final int            payload;
+	/* Frames per call of the wrapped sender. */
+	private final int            group;
+	/* The frames of one group. */
+	private final byte[]         frames;
+	private final CRC32C         crc = new CRC32C();
+
+	/**
+	 * Create a sender with frames of up to 256 payload bytes.
+	 * @param sender The sender transmitting the frames.
+	 */
+	public FrameSender(AbstractSender sender) {
+		this(sender, PAYLOAD);
+	}
+
+	/**
+	 * Create a sender.
+	 * @param sender The sender transmitting the frames.
+	 * @param payload Maximum payload bytes per frame, at most 65535.
+	 */
+	public FrameSender(AbstractSender sender, int payload) {
+		if(payload <= 0 || payload > 0xFFFF)
+			throw new IllegalArgumentException("Invalid frame payload " + payload);
+		this.sender  = sender;
+		this.payload = payload;
+		this.group   = Math.max(1, sender.getChunkSize() / (payload + SYNC_SZ + LENGTH + CRC_SZ));
+		this.frames  = new byte[group * (payload + SYNC_SZ + LENGTH + CRC_SZ)];
+	}
+
+	@Override
+	public int getNumChannels() {
+		return sender.getNumChannels();
+	}
+
+	@Override
+	public float[] init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		return sender.init(samplingFrequency);
+	}
+
+	/**
+	 * Pack the frames of one group.
+	 * @param src The payload.
+	 * @param off Offset of the first byte of the group in src.
+	 * @param len Number of bytes of the group.
+	 * @return Number of bytes in frames[].
+	 */
+	private int pack(byte[] src, int off, int len) {
+		int result = 0;
+		for(int pos = off; pos < off + len; pos += payload) {
+			final int n = Math.min(payload, off + len - pos);
+			result = put(SYNC, SYNC_SZ, result);
+			final int start = result;
+			result = put(n, LENGTH, result);
+			System.arraycopy(src, pos, frames, result, n);
+			result += n;
+			crc.reset();
+			crc.update(frames, start, result - start);
+			result = put((int)crc.getValue(), CRC_SZ, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Write a big endian value to frames[].
+	 * @return Offset after the value.
+	 */
+	private int put(int value, int bytes, int off) {
+		for(int i = bytes - 1; i >= 0; i--)
+			frames[off++] = (byte)(value >>> (8 * i));
+		return off;
+	}
+
+	/**
+	 * @param len Number of payload bytes of a group.
+	 * @return Number of bytes of the frames of the group.
+	 */
+	private int framesSize(int len) {
+		return len + (len + payload - 1) / payload * (SYNC_SZ + LENGTH + CRC_SZ);
+	}
+
+	/**
+	 * Computed from the lengths without packing, thus the number of samples of the wrapped 
+	 * sender must depend on the number of bytes only, as for all senders of this package.
+	 */
+	@Override
+	public int getNumSamples(byte[] data, int off, int len) {
+		final int rest = len % getChunkSize();
+		return (len / getChunkSize()) * sender.getNumSamples(frames, 0, frames.length) + (rest == 0 ? 0 : sender.getNumSamples(frames, 0, framesSize(rest)));
+	}
+
+	@Override
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		int result = 0;
+		for(int pos = off; pos < off + len; pos += getChunkSize())
+			result += sender.synthesizeInto(frames, 0, pack(src, pos, Math.min(getChunkSize(), off + len - pos)), dst, dstOff + result);
+		return result;
+	}
+
+	/**
+	 * One group of frames, thus streamed chunks are framed as a whole transmission.
+	 */
+	@Override
+	public int getChunkSize() {
+		return group * payload;
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.Arrays;
+
+/**
+ * Goertzel filter bank. Computes the DFT magnitude of a block of samples at a set of 
+ * arbitrary frequencies with one multiply-add per sample and frequency, the filters run
+ * in parallel on the DSP kernels. Samples may be fed in pieces of any size, the caller 
+ * decides where a block ends.
+ * 
+ * @author agent
+ *
+ */
+public final class Goertzel {
+	/* Filter coefficients 2 * cos(2 * PI * f / fs). */
+	private final float[] coeff;
+	/* Filter state. */
+	private final float[] s1;
+	private final float[] s2;
+	/* Number of samples in the current block. */
+	private int           count;
+
+	/**
+	 * Create a filter bank.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param frequencies The frequencies to detect.
+	 */
+	public Goertzel(float samplingFrequency, float ... frequencies) {
+		coeff = new float[frequencies.length];
+		s1    = new float[frequencies.length];
+		s2    = new float[frequencies.length];
+		for(int i = 0; i < frequencies.length; i++)
+			coeff[i] = (float)(2 * Math.cos((Math.PI * 2 * frequencies[i]) / samplingFrequency));
+	}
+
+	/**
+	 * Feed samples into the current block.
+	 * @param samples The samples.
+	 * @param off Offset of the first sample.
+	 * @param len Number of samples.
+	 */
+	public void process(float[] samples, int off, int len) {
+		DSP.INSTANCE.goertzel(samples, off, len, coeff, s1, s2);
+		count += len;
+	}
+
+	/**
+	 * Get the amplitudes of the current block. A sine wave with amplitude a at one 
+	 * of the filter frequencies yields approximately a.
+	 * @param amplitudes Destination for the amplitudes, one per frequency.
+	 */
+	public void amplitudes(float[] amplitudes) {
+		final float scale = count == 0 ? 0 : 2f / count;
+		for(int k = 0; k < coeff.length; k++) {
+			float power = s1[k] * s1[k] + s2[k] * s2[k] - coeff[k] * s1[k] * s2[k];
+			amplitudes[k] = (float)Math.sqrt(Math.max(power, 0)) * scale;
+		}
+	}
+
+	/**
+	 * @return Number of samples in the current block.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Start a new block.
+	 */
+	public void reset() {
+		Arrays.fill(s1, 0f);
+		Arrays.fill(s2, 0f);
+		count = 0;
+	}
+}
@@ -28,16 +28,16 @@
  */
 package ch.fhnw.tvver;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.nio.channels.Channels;
 import java.util.Arrays;
 
 import ch.fhnw.ether.audio.ArrayAudioSource;
 import ch.fhnw.ether.audio.FileAudioTarget;
 import ch.fhnw.ether.audio.IAudioRenderTarget;
 import ch.fhnw.ether.audio.JavaSoundTarget;
-import ch.fhnw.ether.audio.URLAudioSource;
 import ch.fhnw.ether.audio.fx.WhiteNoise;
 import ch.fhnw.ether.audio.fx.AudioGain;
 import ch.fhnw.ether.audio.fx.BandPass;
@@ -47,7 +47,6 @@ import ch.fhnw.ether.media.RenderCommandException;
 import ch.fhnw.ether.media.RenderProgram;
 import ch.fhnw.ether.ui.ParameterWindow;
 import ch.fhnw.util.ClassUtilities;
-import ch.fhnw.util.FloatList;
 
 /**
  * Test class for tvver soft modem project.
@@ -66,121 +65,210 @@ public class Main {
 	final static float NOISE     = 0.15f;
 	/* Attenuation steps */
 	final static float GAINS[]   = {1, 0.75f, 0.5f};
+	/* Default sampling frequency of the channel. */
+	final static float SAMPLING_FREQUENCY = 48000;
+	/* Option for rendering the channel offline without audio device and display. */
+	final static String HEADLESS = "-headless";
+	/* Option for writing the transmitted audio data to a wav file. */
+	final static String TAP      = "-tap";
+	/* Option for the sampling frequency of the channel, followed by the frequency in Hz. */
+	final static String RATE     = "-rate";
 
 	/**
 	 * Invoke test program.
 	 * 
 	 * @param args First argument is name of test class without package name and without 
 	 * Receiver/Sender postfix. E.g. for ch.fhnw.tvver.DTMFReceiver pass "DTMF" as first argument.
+	 * Layers may be prepended as described in Modems, e.g. "2CH+DTMF" sends on two channels.
+	 * Further arguments are options: "-headless" renders the audio pipeline offline as fast as possible 
+	 * without audio device and parameter window, each gain is evaluated once. "-tap" writes the
+	 * transmitted and, if headless, the received audio data to wav files for debugging. "-rate 96000" 
+	 * runs the channel at 96 kHz instead of 48 kHz.
 	 * @throws Throwable Upon error.
 	 */
 	public static void main(String[] args) throws Throwable {
-		/* Get class prefix. */
-		String prefix = Main.class.getPackage().getName() + "." + args[0];
+		boolean headless = false;
+		boolean tap      = false;
+		float   rate     = SAMPLING_FREQUENCY;
+		for(int i = 1; i < args.length; i++) {
+			/* Real-time playback or offline rendering. */
+			if(HEADLESS.equals(args[i])) headless = true;
+			/* Write sendFile and recvFile. */
+			if(TAP.equals(args[i]))      tap      = true;
+			/* Sampling frequency. */
+			if(RATE.equals(args[i]) && i + 1 < args.length) rate = Float.parseFloat(args[++i]);
+		}
 
-		/* Construct filenames for intermediate audio data. */
+		/* Construct filenames for optional audio data files. */
 		File   sendFile = new File(args[0] + "_send.wav");
 		File   recvFile = new File(args[0] + "_recv.wav");
 
 		/* Create test data. */
 		byte[] sendData = createData();
-		/* Send data (write it to sendFile). */
-		double duration = send(sendData, (AbstractSender)Class.forName(prefix + "Sender").newInstance(), sendFile);
-		/* Receive data (read it from sendFile). */
-		byte[][] recvData = recv(sendData, duration, (AbstractReceiver)Class.forName(prefix + "Receiver").newInstance(), sendFile, recvFile);
+		/* Send data (synthesize it into memory). */
+		AbstractSender sender = Modems.sender(args[0]);
+		Transmission transmission = send(sendData, sender, rate, tap ? sendFile : null);
+		/* Receive data (streamed from the sender through the channel). */
+		byte[][] recvData = recv(sendData, sender, transmission, Modems.receiver(args[0]), tap ? recvFile : null, headless);
 		/* Compute grade. */
-		grade(sendData, duration, recvData);
+		grade(sendData, transmission.duration, recvData);
 		
 		System.exit(0);
 	}
 
 	/**
-	 * Send data - currently the data is written to a wav file which is the consumed by the receiver.
+	 * Audio data of a transmission.
+	 */
+	static final class Transmission {
+		/** The audio data including silence at begin and end, channels interleaved. */
+		final float[] samples;
+		/** Number of audio channels. */
+		final int     channels;
+		/** Sampling frequency of the audio data. */
+		final float   samplingFrequency;
+		/** Duration of data transmission (without silence at begin and end). */
+		final double  duration;
+
+		Transmission(float[] samples, int channels, float samplingFrequency, double duration) {
+			this.samples           = samples;
+			this.channels          = channels;
+			this.samplingFrequency = samplingFrequency;
+			this.duration          = duration;
+		}
+	}
+
+	/**
+	 * Send data - the audio data is synthesized into one array for the optional wav file and 
+	 * the length of the transmission. The audio pipeline streams it again with SenderStream.
 	 * 
 	 * @param data The data to send.
 	 * @param sender The sender to use
-	 * @param file The wav file for the audio data.
-	 * @return Duration of data transmission (without silence at begin and end).
+	 * @param samplingFrequency The sampling frequency of the channel.
+	 * @param file Optional wav file for the audio data or null.
+	 * @return The audio data and duration of the transmission.
 	 * @throws RenderCommandException
 	 */
-	private static double send(byte[] data, AbstractSender sender, File file) throws RenderCommandException {
-		FileAudioTarget target = new FileAudioTarget(file, 1, 48000);
-
-		/* Collect audio data for transmission. */
-		FloatList audioData = new FloatList();
-		audioData.addAll(silence());
-		sender.init(target.getSampleRate());
-		double duration = audioData.size();
-		audioData.addAll(sender.synthesize(data));
-		duration = (audioData.size() - duration) / target.getSampleRate();
-		audioData.addAll(silence());
-
-		/* Create an audio source with the audio data. */
-		ArrayAudioSource source = new ArrayAudioSource(audioData, target.getNumChannels(), target.getSampleRate(), 1);
-
-		/* Play the audio data */
-		target.useProgram(new RenderProgram<>(source));
+	private static Transmission send(byte[] data, AbstractSender sender, float samplingFrequency, File file) throws RenderCommandException {
+		/* The initialization / calibration sequence counts as transmission time. */
+		float[] init     = sender.init(samplingFrequency);
+		int     channels = sender.getNumChannels();
+		int     before   = silence(samplingFrequency) * channels;
+		int     length   = init.length + sender.getNumSamples(data, 0, data.length);
+		float[] samples  = new float[before + length + silence(samplingFrequency) * channels];
+		System.arraycopy(init, 0, samples, before, init.length);
+		sender.synthesizeInto(data, 0, data.length, samples, before + init.length);
+
+		if(file != null)
+			write(file, samples, channels, samplingFrequency);
+		return new Transmission(samples, channels, samplingFrequency, length / channels / samplingFrequency);
+	}
+
+	/**
+	 * Write audio data to a wav file.
+	 * 
+	 * @param file The wav file.
+	 * @param samples The audio data, channels interleaved.
+	 * @param channels Number of audio channels.
+	 * @param samplingFrequency The sampling frequency of the audio data.
+	 * @throws RenderCommandException
+	 */
+	private static void write(File file, float[] samples, int channels, float samplingFrequency) throws RenderCommandException {
+		FileAudioTarget target = new FileAudioTarget(file, channels, samplingFrequency);
+		target.useProgram(new RenderProgram<>(new ArrayAudioSource(samples, target.getNumChannels(), target.getSampleRate(), 1)));
 		target.start();
 		target.sleepUntil(IRenderTarget.NOT_RENDERING);
 		target.stop();
-		return duration;
 	}
 
 	/**
-	 * Receive data - currently reads audio from a wav file written by the sender.
-	 * 
-	 * @param sendData The original sent data.
-	 * @param duration The duration of the sent data.
-	 * @param recv Receiver to use for decoding.
-	 * @param sendFile The input file.
-	 * @param recvFile The file with channel effects applied (noise, bandpass, etc.). 
-	 * @return The received data.
+	 * Create a program with source, channel effects and receiver. The effects and the receiver
+	 * are shared between programs, each program plays the audio data once. The audio data is 
+	 * synthesized frame by frame by a SenderStream, the source only delivers silent frames 
+	 * for the length of the transmission.
 	 */
-	private static byte[][] recv(byte[] sendData, double duration, AbstractReceiver recv, File sendFile, File recvFile) throws MalformedURLException, IOException, RenderCommandException {
+	private static RenderProgram<IAudioRenderTarget> program(byte[] data, AbstractSender sender, Transmission transmission, WhiteNoise noise, BandPass band, AudioGain gain, AbstractReceiver recv) throws RenderCommandException {
+		/* Silent frames for the length of the transmission. */
+		float[]          frame  = new float[Sweep.scale(Sweep.FRAME_SIZE, transmission.samplingFrequency) * transmission.channels];
+		ArrayAudioSource source = new ArrayAudioSource(frame, transmission.channels, transmission.samplingFrequency, (transmission.samples.length + frame.length - 1) / frame.length);
 		/* Source audio data. */
-		URLAudioSource source = new URLAudioSource(sendFile.toURI().toURL(), 1);
-		/* Some noise on the channel. */
-		WhiteNoise     noise  = new WhiteNoise(); noise.setVal("gain", NOISE);
-		/* Band-limit the channel. */
-		BandPass       band   = new BandPass(1); band.setVal("low", LOW_FREQ); band.setVal("high", HIGH_FREQ);
-		/* Attenuation */
-		AudioGain      gain   = new AudioGain();
-
-		byte[][] result = new byte[GAINS.length][];
+		SenderStream     stream = new SenderStream(sender, transmission.samplingFrequency, Channels.newChannel(new ByteArrayInputStream(data)), silence(transmission.samplingFrequency) * transmission.channels);
 
-		/* Create a program with source and channel effects. */
 		RenderProgram<IAudioRenderTarget> program = new RenderProgram<>(
 				source,
+				stream,
 				noise, 
 				band,
 				gain);
 
-		/* Initialize receiver. */
-		recv.init(source.getSampleRate());
-
 		/* Add optional effects to audio pipeline. */
 		for(AbstractRenderCommand<IAudioRenderTarget,?> cmd : recv.getCmds())
 			program.addLast(cmd);
 		program.addLast(recv);
+		return program;
+	}
 
-		ParameterWindow w = new ParameterWindow(program);
+	/**
+	 * Receive data - plays the audio data of the sender through the channel.
+	 * 
+	 * @param sendData The original sent data.
+	 * @param sender The sender, streams the audio data in real-time.
+	 * @param transmission The audio data of the sender.
+	 * @param recv Receiver to use for decoding.
+	 * @param recvFile Optional wav file for the audio data with channel effects applied (noise, bandpass, etc.) at the last gain, headless only, or null. 
+	 * @param headless If true, the program is rendered offline into a wav file, otherwise played in real-time until the parameter window is closed.
+	 * @return The received data.
+	 */
+	private static byte[][] recv(byte[] sendData, AbstractSender sender, Transmission transmission, AbstractReceiver recv, File recvFile, boolean headless) throws RenderCommandException, IOException {
+		byte[][] result = new byte[GAINS.length][];
+
+		/* Initialize receiver. */
+		recv.init(transmission.samplingFrequency);
+
+		/* Some noise on the channel. */
+		WhiteNoise     noise  = new WhiteNoise(); noise.setVal("gain", NOISE);
+		/* Band-limit the channel. */
+		BandPass       band   = new BandPass(1); band.setVal("low", LOW_FREQ); band.setVal("high", HIGH_FREQ);
+		/* Attenuation */
+		AudioGain      gain   = new AudioGain();
+
+		if(headless) {
+			/* The file target renders as fast as possible, without tap into a temporary file. */
+			File file = recvFile == null ? File.createTempFile("tvver", ".wav") : recvFile;
+			try {
+				for(int i = 0; i < GAINS.length; i++) {
+					/* Set gain. */
+					gain.setVal("gain", GAINS[i]);
+					/* Render and decode the audio data, the file keeps the last gain. */
+					FileAudioTarget target = new FileAudioTarget(file, transmission.channels, transmission.samplingFrequency);
+					target.useProgram(program(sendData, sender, transmission, noise, band, gain, recv));
+					target.start();
+					target.sleepUntil(IRenderTarget.NOT_RENDERING);
+					target.stop();
+
+					result[i] = recv.getAndClearData();
+				}
+			} finally {
+				if(recvFile == null) file.delete();
+			}
+			return result;
+		}
+
+		ParameterWindow w = new ParameterWindow(program(sendData, sender, transmission, noise, band, gain, recv));
 
-		//IAudioRenderTarget target = new FileAudioTarget(recvFile, source.getNumChannels(), source.getSampleRate());
 		IAudioRenderTarget target = new JavaSoundTarget();
-		target.useProgram(program);
 
 		while(w.isVisible()) {
 			for(int i = 0; i < GAINS.length; i++) {
 				/* Set gain. */
 				gain.setVal("gain", GAINS[i]);
 				/* Play and decode the audio data. */
+				target.useProgram(program(sendData, sender, transmission, noise, band, gain, recv));
 				target.start();
 				target.sleepUntil(IRenderTarget.NOT_RENDERING);
-				source.rewind(target);
 
 				result[i] = recv.getAndClearData();
 			}
-			grade(sendData, duration, result);
+			grade(sendData, transmission.duration, result);
 		}
 		target.stop();
 
@@ -204,11 +292,8 @@ public class Main {
 			 */
 
 			int errors = 0;
-			for(int j = 0; j < recvData.length; j++) {
-				errors += Math.max(0, sendData.length - recvData[j].length);
-				for(int i = 0; i < Math.min(recvData[j].length, sendData.length); i++) 
-					if(recvData[j][i] != sendData[i]) errors++;
-			}
+			for(int j = 0; j < recvData.length; j++)
+				errors += errors(sendData, recvData[j]);
 
 			double bitrate   = (sendData.length * 8) / duration;
 			double errorrate = errors / (double)(sendData.length * recvData.length); 
@@ -216,10 +301,35 @@ public class Main {
 			System.out.println("\n-----------------------------------------");
 			System.out.println("Errorrate: " + errorrate);
 			System.out.println("Bits/sec:  " + bitrate);
-			System.out.println("Grade:     " + (Math.min(((1 - errorrate) * (bitrate / 1200)), 5) + 1));
+			System.out.println("Grade:     " + grade(errorrate, bitrate));
 		}
 	}
 
+	/**
+	 * Count the byte errors of one transmission. Missing bytes count as errors.
+	 * 
+	 * @param sendData The sent data.
+	 * @param recvData The received data.
+	 * @return Number of wrong or missing bytes.
+	 */
+	static int errors(byte[] sendData, byte[] recvData) {
+		int errors = Math.max(0, sendData.length - recvData.length);
+		for(int i = 0; i < Math.min(recvData.length, sendData.length); i++) 
+			if(recvData[i] != sendData[i]) errors++;
+		return errors;
+	}
+
+	/**
+	 * Compute grade based on error rate and bitrate.
+	 * 
+	 * @param errorrate The byte error rate.
+	 * @param bitrate The bitrate in bits/s.
+	 * @return The grade.
+	 */
+	static double grade(double errorrate, double bitrate) {
+		return Math.min(((1 - errorrate) * (bitrate / 1200)), 5) + 1;
+	}
+
 	/**
 	 * Dump some debug information.
 	 * 
@@ -294,9 +404,9 @@ public class Main {
 	/**
 	 * Create random amount of silence.
 	 * 
-	 * @return Silence.
+	 * @return Number of samples of silence.
 	 */
-	private static float[] silence() {
-		return new float[(int)((Math.random() * 4096)  + 4096)];
+	private static int silence(float samplingFrequency) {
+		return (int)(((Math.random() * 4096)  + 4096) * samplingFrequency / SAMPLING_FREQUENCY);
 	}
 }
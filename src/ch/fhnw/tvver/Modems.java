@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Discovery and instantiation of the modems in this package. A modem is a pair of
+ * concrete classes &lt;name&gt;Sender and &lt;name&gt;Receiver extending AbstractSender
+ * and AbstractReceiver, with public no-argument constructors. The name is what Main
+ * expects as first argument, e.g. "DTMF". Layers are added with '+' in front of a modem 
+ * name: "FRAME" for framing, a FEC name (see FEC.forName()) for forward error correction,
+ * &lt;n&gt;CH for n parallel audio channels or &lt;rate&gt;HZ for a modem running at the 
+ * given sampling frequency behind a ResamplingSender and ResamplingReceiver, e.g. "RS+QAM16", "RS+CC+QAM16", "FRAME+SimpleAM", "RS+2CH+QAM16" or "24000HZ+DTMF".
+ *
+ * @author agent
+ *
+ */
+public final class Modems {
+	private static final String PACKAGE = Modems.class.getPackage().getName();
+	private static final String SENDER  = "Sender";
+	private static final char   PLUS    = '+';
+	private static final String FRAME   = "FRAME";
+	private static final String CH      = "CH";
+	private static final String HZ      = "HZ";
+
+	private Modems() {}
+
+	/**
+	 * Find all modems on the class path.
+	 *
+	 * @return The sorted modem names.
+	 * @throws IOException If the class path cannot be read.
+	 */
+	public static List<String> list() throws IOException {
+		TreeSet<String> classes = new TreeSet<>();
+		ClassLoader     loader  = Modems.class.getClassLoader();
+		String          path    = PACKAGE.replace('.', '/');
+		for(Enumeration<URL> urls = loader.getResources(path); urls.hasMoreElements();) {
+			URL url = urls.nextElement();
+			if("jar".equals(url.getProtocol())) {
+				try(JarFile jar = ((JarURLConnection)url.openConnection()).getJarFile()) {
+					for(Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+						String name = entries.nextElement().getName();
+						if(name.startsWith(path + "/") && name.indexOf('/', path.length() + 1) < 0)
+							classes.add(name.substring(path.length() + 1));
+					}
+				}
+			} else if("file".equals(url.getProtocol())) {
+				try {
+					String[] names = new File(url.toURI()).list();
+					if(names != null)
+						for(String name : names) classes.add(name);
+				} catch(URISyntaxException e) {
+					throw new IOException(e);
+				}
+			}
+		}
+
+		List<String> result = new ArrayList<>();
+		for(String file : classes) {
+			if(!(file.endsWith(SENDER + ".class"))) continue;
+			String name = file.substring(0, file.length() - (SENDER + ".class").length());
+			if(name.isEmpty() || !(classes.contains(name + "Receiver.class"))) continue;
+			try {
+				if(isModem(Class.forName(PACKAGE + "." + name + SENDER), AbstractSender.class) &&
+						isModem(Class.forName(PACKAGE + "." + name + "Receiver"), AbstractReceiver.class))
+					result.add(name);
+			} catch(ClassNotFoundException e) {
+				continue;
+			}
+		}
+		return result;
+	}
+
+	private static boolean isModem(Class<?> cls, Class<?> base) {
+		if(!(base.isAssignableFrom(cls)) || Modifier.isAbstract(cls.getModifiers()) || !(Modifier.isPublic(cls.getModifiers())))
+			return false;
+		try {
+			return Modifier.isPublic(cls.getConstructor().getModifiers());
+		} catch(NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param layer A layer name.
+	 * @return The number of channels of a &lt;n&gt;CH layer, 0 for other layers.
+	 */
+	private static int channels(String layer) {
+		return number(layer, CH);
+	}
+
+	/**
+	 * @param layer A layer name.
+	 * @return The sampling frequency of a &lt;rate&gt;HZ layer, 0 for other layers.
+	 */
+	private static int rate(String layer) {
+		return number(layer, HZ);
+	}
+
+	private static int number(String layer, String suffix) {
+		if(!(layer.endsWith(suffix)) || layer.length() == suffix.length()) return 0;
+		try {
+			return Math.max(0, Integer.parseInt(layer.substring(0, layer.length() - suffix.length())));
+		} catch(NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @param name The modem name.
+	 * @return Seconds per byte of the modem, measured on a single byte. This is a frame for senders with framing.
+	 * @throws ReflectiveOperationException If the sender cannot be created.
+	 */
+	private static double period(String name) throws ReflectiveOperationException {
+		final AbstractSender sender = sender(name);
+		sender.init(Main.SAMPLING_FREQUENCY);
+		return sender.getNumSamples(new byte[1], 0, 1) / (double)(sender.getNumChannels() * Main.SAMPLING_FREQUENCY);
+	}
+
+	/**
+	 * Create a sender.
+	 *
+	 * @param name The modem name, e.g. "DTMF" or "RS+DTMF".
+	 * @return A new instance of &lt;name&gt;Sender, wrapped by a FrameSender, FECSender, MultiChannelSender or ResamplingSender per layer.
+	 * @throws ReflectiveOperationException If the sender cannot be created.
+	 * @throws IllegalArgumentException If the layer name is unknown.
+	 */
+	public static AbstractSender sender(String name) throws ReflectiveOperationException {
+		final int sep = name.indexOf(PLUS);
+		if(sep >= 0) {
+			final String layer = name.substring(0, sep);
+			final String modem = name.substring(sep + 1);
+			final int    n     = channels(layer);
+			if(n > 0) {
+				AbstractSender[] senders = new AbstractSender[n];
+				for(int c = 0; c < n; c++)
+					senders[c] = sender(modem);
+				return new MultiChannelSender(senders);
+			}
+			if(rate(layer) > 0)
+				return new ResamplingSender(sender(modem), rate(layer));
+			final AbstractSender sender = sender(modem);
+			return FRAME.equals(layer) ? new FrameSender(sender) : new FECSender(FEC.forName(layer), sender);
+		}
+		return (AbstractSender)Class.forName(PACKAGE + "." + name + SENDER).newInstance();
+	}
+
+	/**
+	 * Create a receiver.
+	 *
+	 * @param name The modem name, e.g. "DTMF" or "RS+DTMF".
+	 * @return A new instance of &lt;name&gt;Receiver, wrapped by a FrameReceiver, FECReceiver, MultiChannelReceiver or ResamplingReceiver per layer.
+	 * @throws ReflectiveOperationException If the receiver cannot be created.
+	 * @throws IllegalArgumentException If the layer name is unknown.
+	 */
+	public static AbstractReceiver receiver(String name) throws ReflectiveOperationException {
+		final int sep = name.indexOf(PLUS);
+		if(sep >= 0) {
+			final String layer = name.substring(0, sep);
+			final String modem = name.substring(sep + 1);
+			final int    n     = channels(layer);
+			if(n > 0) {
+				AbstractReceiver[] receivers = new AbstractReceiver[n];
+				for(int c = 0; c < n; c++)
+					receivers[c] = receiver(modem);
+				return new MultiChannelReceiver(period(modem), receivers);
+			}
+			if(rate(layer) > 0)
+				return new ResamplingReceiver(receiver(modem), rate(layer));
+			final AbstractReceiver receiver = receiver(modem);
+			return FRAME.equals(layer) ? new FrameReceiver(receiver) : new FECReceiver(FEC.forName(layer), receiver);
+		}
+		return (AbstractReceiver)Class.forName(PACKAGE + "." + name + "Receiver").newInstance();
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import ch.fhnw.ether.audio.IAudioRenderTarget;
+import ch.fhnw.ether.media.AbstractRenderCommand;
+
+/**
+ * Receiver for MultiChannelSender, one mono receiver per channel. The interleaved samples
+ * are split into channels, which are decoded independently and in parallel on the common 
+ * ForkJoinPool. The bytes are merged round robin as soon as every channel has received its
+ * next byte. If some channels have received bytes but no channel received anything for 
+ * FLUSH byte periods of the channel modem (e.g. at the end of a transmission whose length
+ * is not a multiple of the number of channels), the remaining bytes are merged as they are.
+ * The commands of the channel receivers are forwarded in channel order, they process the
+ * interleaved frames of all channels.
+ * 
+ * @author agent
+ *
+ */
+public class MultiChannelReceiver extends AbstractReceiver {
+	/* Time without received bytes after which the channels are flushed, in byte periods. */
+	private static final double FLUSH = 4;
+
+	private final AbstractReceiver[] receivers;
+	/* Seconds per byte of one channel. */
+	private final double             period;
+	/* Decoding of one channel for the current frame. */
+	private final Decoder[]          decoders;
+	/* Received bytes per channel, wrapped for draining the receivers, number of bytes and next read position per channel. */
+	private final byte[][]           queues;
+	private final ByteBuffer[]       buffers;
+	private final int[]              counts;
+	private final int[]              heads;
+	/* Channel of the next merged byte. */
+	private int                      next;
+	/* Samples per channel since the last received byte. */
+	private int                      idle;
+
+	/**
+	 * Decodes the samples of one channel.
+	 */
+	private final class Decoder extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int channel;
+		private float[]   samples = new float[0];
+
+		Decoder(int channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		protected void compute() {
+			receivers[channel].receive(samples);
+		}
+	}
+
+	/**
+	 * Create a receiver.
+	 * @param period Seconds per byte of one channel, at least the time between two bytes received by a channel receiver. 
+	 * @param receivers One mono receiver per channel, matching the senders of MultiChannelSender.
+	 */
+	public MultiChannelReceiver(double period, AbstractReceiver ... receivers) {
+		if(receivers.length == 0)
+			throw new IllegalArgumentException("No channels");
+		if(!(period > 0))
+			throw new IllegalArgumentException("Invalid byte period " + period);
+		this.receivers = receivers;
+		this.period    = period;
+		this.decoders  = new Decoder[receivers.length];
+		this.queues    = new byte[receivers.length][256];
+		this.buffers   = new ByteBuffer[receivers.length];
+		this.counts    = new int[receivers.length];
+		this.heads     = new int[receivers.length];
+		for(int c = 0; c < receivers.length; c++) {
+			decoders[c] = new Decoder(c);
+			buffers[c]  = ByteBuffer.wrap(queues[c]);
+		}
+	}
+
+	/**
+	 * @return Number of channels.
+	 */
+	public int getNumChannels() {
+		return receivers.length;
+	}
+
+	@Override
+	public void init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		getCmds().clear();
+		for(int c = 0; c < receivers.length; c++) {
+			receivers[c].init(samplingFrequency);
+			for(AbstractRenderCommand<IAudioRenderTarget,?> cmd : receivers[c].getCmds())
+				insert(cmd);
+			counts[c] = 0;
+			heads[c]  = 0;
+		}
+		next = 0;
+		idle = 0;
+	}
+
+	@Override
+	protected void process(float[] samples) {
+		final int n      = receivers.length;
+		final int frames = samples.length / n;
+		for(Decoder decoder : decoders) {
+			if(decoder.samples.length != frames)
+				decoder.samples = new float[frames];
+			for(int i = 0; i < frames; i++)
+				decoder.samples[i] = samples[i * n + decoder.channel];
+			decoder.reinitialize();
+		}
+		if(n == 1) decoders[0].invoke();
+		else       ForkJoinTask.invokeAll(decoders);
+
+		boolean received = false;
+		for(int c = 0; c < n; c++) {
+			final int available = receivers[c].getAvailableData();
+			if(available == 0) continue;
+			if(counts[c] + available > queues[c].length) {
+				queues[c]  = Arrays.copyOf(queues[c], 2 * (counts[c] + available));
+				buffers[c] = ByteBuffer.wrap(queues[c]);
+			}
+			buffers[c].position(counts[c]);
+			counts[c] += receivers[c].drainData(buffers[c]);
+			received   = true;
+		}
+		idle = received ? 0 : idle + frames;
+
+		merge(false);
+		if(idle > FLUSH * period * samplingFrequency)
+			merge(true);
+	}
+
+	/**
+	 * Add the queued bytes in round robin order.
+	 * @param flush If false, stop at the first empty queue, otherwise skip empty queues.
+	 */
+	private void merge(boolean flush) {
+		final int n = receivers.length;
+		for(int empty = 0; empty < n; ) {
+			if(heads[next] < counts[next]) {
+				addData(queues[next][heads[next]++]);
+				empty = 0;
+			} else if(flush)
+				empty++;
+			else
+				break;
+			next = (next + 1) % n;
+		}
+		for(int c = 0; c < n; c++) {
+			System.arraycopy(queues[c], heads[c], queues[c], 0, counts[c] - heads[c]);
+			counts[c] -= heads[c];
+			heads[c]   = 0;
+		}
+		if(flush) next = 0;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Sender transmitting on several audio channels in parallel, one mono sender per channel.
+ * The bytes of each synthesizeInto() call are distributed round robin over the channels, 
+ * byte i goes to channel i % N. The channels are interleaved, shorter channels are padded 
+ * with silence. MultiChannelReceiver decodes the channels and merges the bytes again.
+ * 
+ * @author agent
+ *
+ */
+public class MultiChannelSender extends AbstractSender {
+	private final AbstractSender[] senders;
+	/* Bytes and samples of one channel, grown on demand. */
+	private byte[]                 bytes   = new byte[0];
+	private float[]                samples = new float[0];
+
+	/**
+	 * Create a sender.
+	 * @param senders One mono sender per channel, usually of the same modem.
+	 */
+	public MultiChannelSender(AbstractSender ... senders) {
+		if(senders.length == 0)
+			throw new IllegalArgumentException("No channels");
+		for(AbstractSender sender : senders)
+			if(sender.getNumChannels() != 1)
+				throw new IllegalArgumentException("Sender " + sender.getClass().getSimpleName() + " is not mono");
+		this.senders = senders;
+	}
+
+	@Override
+	public int getNumChannels() {
+		return senders.length;
+	}
+
+	@Override
+	public float[] init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		final int  n         = senders.length;
+		float[][]  preambles = new float[n][];
+		int        length    = 0;
+		for(int c = 0; c < n; c++) {
+			preambles[c] = senders[c].init(samplingFrequency);
+			length       = Math.max(length, preambles[c].length);
+		}
+		float[] result = new float[length * n];
+		for(int c = 0; c < n; c++)
+			for(int i = 0; i < preambles[c].length; i++)
+				result[i * n + c] = preambles[c][i];
+		return result;
+	}
+
+	/**
+	 * Number of samples of one channel, 0 if it has no bytes.
+	 */
+	private int getNumSamples(int channel, int count) {
+		return count == 0 ? 0 : senders[channel].getNumSamples(bytes, 0, count);
+	}
+
+	/**
+	 * Collect the bytes of one channel into bytes[].
+	 * @return Number of bytes of the channel.
+	 */
+	private int split(byte[] src, int off, int len, int channel) {
+		final int n      = senders.length;
+		final int result = (len - channel + n - 1) / n;
+		if(bytes.length < result)
+			bytes = new byte[result];
+		for(int i = 0; i < result; i++)
+			bytes[i] = src[off + channel + i * n];
+		return result;
+	}
+
+	@Override
+	public int getNumSamples(byte[] data, int off, int len) {
+		int result = 0;
+		for(int c = 0; c < senders.length; c++)
+			result = Math.max(result, getNumSamples(c, split(data, off, len, c)));
+		return result * senders.length;
+	}
+
+	@Override
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		final int n      = senders.length;
+		final int result = getNumSamples(src, off, len);
+		for(int c = 0; c < n; c++) {
+			final int count      = split(src, off, len, c);
+			final int numSamples = getNumSamples(c, count);
+			if(samples.length < numSamples)
+				samples = new float[numSamples];
+			if(count > 0)
+				senders[c].synthesizeInto(bytes, 0, count, samples, 0);
+			for(int i = 0; i < numSamples; i++)
+				dst[dstOff + i * n + c] = samples[i];
+			for(int i = numSamples * n + c; i < result; i += n)
+				dst[dstOff + i] = 0;
+		}
+		return result;
+	}
+
+	/**
+	 * One chunk per channel, thus streamed chunks are distributed as a whole transmission.
+	 */
+	@Override
+	public int getChunkSize() {
+		return senders[0].getChunkSize() * senders.length;
+	}
+}
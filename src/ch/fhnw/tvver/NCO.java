@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Numerically controlled oscillator. A 32 bit phase accumulator drives a sine lookup
+ * table with linear interpolation. Since the phase wraps around exactly, the oscillator
+ * does not drift over long runs: the frequency error is bounded by samplingFrequency / 2^33 
+ * and the amplitude error by the interpolation error of the table (below 1e-6).
+ * Changing the frequency keeps the current phase, thus consecutive symbols are
+ * phase continuous.
+ * 
+ * @author agent
+ *
+ */
+public final class NCO {
+	/* log2 of the sine table size. */
+	private static final int     TABLE_BITS = 12;
+	/* Phase bits used for interpolation. */
+	private static final int     FRAC_BITS  = 32 - TABLE_BITS;
+	private static final int     FRAC_MASK  = (1 << FRAC_BITS) - 1;
+	private static final float   FRAC_SCALE = 1f / (1 << FRAC_BITS);
+	/* Phase offset of a quarter cycle (cosine). */
+	private static final int     QUARTER    = 1 << 30;
+	/* One full cycle of the phase accumulator. */
+	private static final double  CYCLE      = 4294967296.0;
+	/* Sine table with one guard entry for interpolation. */
+	private static final float[] SIN        = new float[(1 << TABLE_BITS) + 1];
+
+	static {
+		for(int i = 0; i < SIN.length; i++)
+			SIN[i] = (float)Math.sin((Math.PI * 2 * i) / (1 << TABLE_BITS));
+	}
+
+	/* Phase accumulator, 2^32 corresponds to one cycle. */
+	private int phase;
+	/* Phase increment per sample. */
+	private int increment;
+
+	public NCO() {}
+
+	public NCO(float frequency, float samplingFrequency) {
+		setFrequency(frequency, samplingFrequency);
+	}
+
+	/**
+	 * Set the oscillator frequency. The phase is not changed.
+	 * @param frequency The frequency in Hz.
+	 * @param samplingFrequency The sampling frequency.
+	 */
+	public void setFrequency(float frequency, float samplingFrequency) {
+		increment = (int)Math.round(((double)frequency / samplingFrequency) * CYCLE);
+	}
+
+	/**
+	 * Reset the phase to zero.
+	 */
+	public void reset() {
+		phase = 0;
+	}
+
+	/**
+	 * Advance the phase.
+	 * @param n Number of samples to advance.
+	 */
+	public void advance(int n) {
+		phase += n * increment;
+	}
+
+	private static float sin(int phase) {
+		final int idx = phase >>> FRAC_BITS;
+		final float s = SIN[idx];
+		return s + (SIN[idx + 1] - s) * ((phase & FRAC_MASK) * FRAC_SCALE);
+	}
+
+	/**
+	 * @return The sine at the current phase.
+	 */
+	public float sin() {
+		return sin(phase);
+	}
+
+	/**
+	 * @return The cosine at the current phase.
+	 */
+	public float cos() {
+		return sin(phase + QUARTER);
+	}
+
+	/**
+	 * Write a sine wave and advance the phase.
+	 * @param dst Destination for the samples.
+	 * @param off Offset into dst.
+	 * @param n Number of samples.
+	 * @param amp Amplitude.
+	 * @return Offset after the samples.
+	 */
+	public int sin(float[] dst, int off, int n, float amp) {
+		int p = phase;
+		for(int i = off; i < off + n; i++, p += increment)
+			dst[i] = sin(p) * amp;
+		phase = p;
+		return off + n;
+	}
+
+	/**
+	 * Add a sine wave to existing samples and advance the phase.
+	 * @param dst Destination for the samples.
+	 * @param off Offset into dst.
+	 * @param n Number of samples.
+	 * @param amp Amplitude.
+	 * @return Offset after the samples.
+	 */
+	public int add(float[] dst, int off, int n, float amp) {
+		int p = phase;
+		for(int i = off; i < off + n; i++, p += increment)
+			dst[i] += sin(p) * amp;
+		phase = p;
+		return off + n;
+	}
+
+	/**
+	 * Write a quadrature modulated carrier i * cos + q * sin and advance the phase.
+	 * @param dst Destination for the samples.
+	 * @param off Offset into dst.
+	 * @param n Number of samples.
+	 * @param i In-phase (cosine) amplitude.
+	 * @param q Quadrature (sine) amplitude.
+	 * @return Offset after the samples.
+	 */
+	public int iq(float[] dst, int off, int n, float i, float q) {
+		int p = phase;
+		for(int j = off; j < off + n; j++, p += increment)
+			dst[j] = i * sin(p + QUARTER) + q * sin(p);
+		phase = p;
+		return off + n;
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Symbol layout shared by OFDMSender and OFDMReceiver: FFT size, cyclic prefix, the 
+ * subcarriers inside the pass band of the channel and the known training symbol.
+ * 
+ * @author agent
+ *
+ */
+public final class OFDMLayout {
+	/* Maximum subcarrier spacing in Hz, the FFT size is the next power of two. */
+	private static final float SPACING       = 47;
+	/* Every PILOT_SPACING-th subcarrier is a pilot. */
+	static         final int   PILOT_SPACING = 8;
+	/* Subcarriers kept away from the channel band edges. */
+	private static final int   GUARD         = 2;
+
+	/** FFT size. */
+	final int     n;
+	/** Cyclic prefix length. */
+	final int     cp;
+	/** Subcarrier bins carrying data. */
+	final int[]   data;
+	/** Subcarrier bins carrying pilots. */
+	final int[]   pilots;
+	/** Training symbol, real and imaginary part per bin. */
+	final float[] trainingRe;
+	final float[] trainingIm;
+
+	/**
+	 * Compute the layout for a sampling frequency.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param constellation The constellation of the data subcarriers.
+	 */
+	public OFDMLayout(float samplingFrequency, QAMConstellation constellation) {
+		n  = Integer.highestOneBit((int)Math.ceil(samplingFrequency / SPACING) - 1) << 1;
+		cp = n / 16;
+
+		final int low  = (int)Math.ceil((Main.LOW_FREQ  * n) / samplingFrequency) + GUARD;
+		final int high = (int)((Main.HIGH_FREQ * n) / samplingFrequency) - GUARD;
+		int numPilots = 0;
+		for(int k = low; k <= high; k++)
+			if((k - low) % PILOT_SPACING == 0) numPilots++;
+		pilots = new int[numPilots];
+		data   = new int[high - low + 1 - numPilots];
+		for(int k = low, p = 0, d = 0; k <= high; k++) {
+			if((k - low) % PILOT_SPACING == 0) pilots[p++] = k;
+			else                               data[d++]   = k;
+		}
+
+		/* Pseudo random 4-QAM training symbol on all used subcarriers, with the mean power of the data. */
+		trainingRe = new float[n];
+		trainingIm = new float[n];
+		final float amp = (float)Math.sqrt(constellation.power() / 2);
+		int seed = 0x1234567;
+		for(int k = low; k <= high; k++) {
+			seed = seed * 1103515245 + 12345;
+			trainingRe[k] = (seed & 0x10000) == 0 ? -amp : amp;
+			trainingIm[k] = (seed & 0x20000) == 0 ? -amp : amp;
+		}
+	}
+
+	/**
+	 * @return Number of samples per OFDM symbol including the cyclic prefix.
+	 */
+	public int symbolSize() {
+		return n + cp;
+	}
+}
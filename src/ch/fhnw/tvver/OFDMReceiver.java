@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.Arrays;
+
+import ch.fhnw.ether.media.Parameter;
+
+/**
+ * Receiver for OFDMSender. A frame is detected when the short term RMS of the signal
+ * rises above the start threshold relative to the noise floor. The phase ramp of the channel estimate from the 
+ * training symbol yields the timing error, the FFT windows of the following symbols
+ * are moved to the middle of the cyclic prefix. Pilot subcarriers track the common 
+ * phase of each symbol.
+ * 
+ * @author agent
+ *
+ */
+public class OFDMReceiver extends AbstractReceiver {
+	/* RMS threshold for detecting the training symbol, relative to the mean magnitude of the noise. */
+	private static final Parameter START_THRESH = new Parameter("start", "Start Threshold", 1,20f,4f);
+	/* Number of estimates averaged per subcarrier by the training symbol. */
+	private static final int       ESTIMATES     = 3;
+	/* Minimum step size of the decision directed channel tracking. */
+	private static final float     MIN_MU        = 1f / 32;
+	/* Minimum correlation of adjacent channel estimates for a valid training symbol. */
+	private static final float     MIN_COHERENCE = 0.5f;
+
+	/* The constellation used on each subcarrier. */
+	private final QAMConstellation constellation;
+
+	private OFDMLayout layout;
+	private FFT        fft;
+	/* Window of the current symbol. */
+	private float[]    re;
+	private float[]    im;
+	/* Squared samples for the short term RMS, index and sum. */
+	private float[]    power;
+	private int        powerIdx;
+	private float      powerSum;
+	/* Mean power of the window that triggered the start. */
+	private float      startPower;
+	/* Channel estimate (inverse) per bin. */
+	private float[]    invRe;
+	private float[]    invIm;
+
+	/* Idle / data state */
+	private boolean    idle = true;
+	/* Sample index into the current symbol, starting at the detected start. */
+	private int        sampleIdx;
+	/* Training symbol expected next. */
+	private boolean    training;
+	/* Data symbols since the training symbol. */
+	private int        tracked;
+	/* Samples to skip after the end of a frame. */
+	private int        skip;
+	/* Bit accumulator */
+	private int        bits;
+	private int        numBits;
+	/* Header bytes received, frame length and bytes received. */
+	private int        header;
+	private int        msgLength;
+	private int        msgCounter;
+
+	/**
+	 * Create a 16-QAM OFDM receiver.
+	 */
+	public OFDMReceiver() {
+		this(16);
+	}
+
+	/**
+	 * Create a receiver.
+	 * @param order The constellation order per subcarrier, 4, 16, 64 or 256.
+	 */
+	public OFDMReceiver(int order) {
+		super(START_THRESH);
+		constellation = new QAMConstellation(order);
+	}
+
+	@Override
+	public void init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		layout = new OFDMLayout(samplingFrequency, constellation);
+		fft    = new FFT(layout.n);
+		re     = new float[layout.n];
+		im     = new float[layout.n];
+		invRe  = new float[layout.n];
+		invIm  = new float[layout.n];
+		power  = new float[layout.cp / 2];
+		powerIdx = 0;
+		powerSum = 0;
+	}
+
+	/**
+	 * Estimate the channel from the training symbol spectrum in re / im. The estimate
+	 * is averaged over three adjacent subcarriers after removing the phase ramp caused 
+	 * by the timing offset.
+	 * @return True if the estimate is consistent over adjacent subcarriers, false for noise.
+	 */
+	private boolean estimate() {
+		final int used = layout.pilots[0];
+		final int last = Math.max(layout.pilots[layout.pilots.length - 1], layout.data[layout.data.length - 1]);
+		/* h = y / x */
+		for(int k = used; k <= last; k++) {
+			final float xr = layout.trainingRe[k];
+			final float xi = layout.trainingIm[k];
+			final float xx = xr * xr + xi * xi;
+			final float yr = re[k];
+			final float yi = im[k];
+			re[k] = (yr * xr + yi * xi) / xx;
+			im[k] = (yi * xr - yr * xi) / xx;
+		}
+		/* Phase rotation between adjacent subcarriers: sum h[k] * conj(h[k-1]) */
+		float rotRe = 0;
+		float rotIm = 0;
+		float power = 0;
+		for(int k = used + 1; k <= last; k++) {
+			rotRe += re[k] * re[k-1] + im[k] * im[k-1];
+			rotIm += im[k] * re[k-1] - re[k] * im[k-1];
+			power += re[k] * re[k] + im[k] * im[k];
+		}
+		final float rot = (float)Math.sqrt(rotRe * rotRe + rotIm * rotIm);
+		if(power == 0 || rot < MIN_COHERENCE * power)
+			return false;
+		rotRe /= rot;
+		rotIm /= rot;
+
+		/* The window started delay samples too late: h[k] ~ exp(j*2*PI*k*delay/n). Move the following 
+		   windows to the middle of the cyclic prefix and rotate the estimate accordingly. */
+		final double delay   = Math.atan2(rotIm, rotRe) * layout.n / (2 * Math.PI);
+		final int    correct = Math.max(-layout.cp, Math.min(layout.cp, (int)Math.round(delay + layout.cp / 2)));
+		sampleIdx += correct;
+
+		for(int k = used; k <= last; k++) {
+			/* Average of h[k-1] * rot, h[k], h[k+1] * conj(rot), edges use two values. */
+			float hr = re[k];
+			float hi = im[k];
+			int   n  = 1;
+			if(k > used) {
+				hr += re[k-1] * rotRe - im[k-1] * rotIm;
+				hi += re[k-1] * rotIm + im[k-1] * rotRe;
+				n++;
+			}
+			if(k < last) {
+				hr += re[k+1] * rotRe + im[k+1] * rotIm;
+				hi += im[k+1] * rotRe - re[k+1] * rotIm;
+				n++;
+			}
+			/* inv = exp(j*2*PI*k*correct/n) / h */
+			final float  hh = (hr * hr + hi * hi) / n;
+			final double a  = 2 * Math.PI * k * correct / layout.n;
+			final float  cr = (float)Math.cos(a);
+			final float  ci = (float)Math.sin(a);
+			invRe[k] = hh == 0 ? 0 : (cr * hr + ci * hi) / hh;
+			invIm[k] = hh == 0 ? 0 : (ci * hr - cr * hi) / hh;
+		}
+		return true;
+	}
+
+	/**
+	 * Refine the channel estimate of a data subcarrier with a decision: inv *= 1 + mu * (x / z - 1).
+	 * @param k The subcarrier bin.
+	 * @param zr Equalized real part.
+	 * @param zi Equalized imaginary part.
+	 * @param xr Decided real part.
+	 * @param xi Decided imaginary part.
+	 * @param mu Step size.
+	 */
+	private void track(int k, float zr, float zi, float xr, float xi, float mu) {
+		final float zz = zr * zr + zi * zi;
+		if(zz == 0) return;
+		final float rr = 1 + mu * ((xr * zr + xi * zi) / zz - 1);
+		final float ri =     mu * ((xi * zr - xr * zi) / zz);
+		final float ir = invRe[k];
+		invRe[k] = ir * rr - invIm[k] * ri;
+		invIm[k] = ir * ri + invIm[k] * rr;
+	}
+
+	/**
+	 * Equalize and decode the data symbol spectrum in re / im.
+	 */
+	private void decode() {
+		/* Equalize, re / im = y / h */
+		for(int k = 0; k < layout.n / 2; k++) {
+			final float yr = re[k];
+			final float yi = im[k];
+			re[k] = yr * invRe[k] - yi * invIm[k];
+			im[k] = yr * invIm[k] + yi * invRe[k];
+		}
+		/* Common phase error from the pilots, which are all (AMP, AMP). */
+		float pr = 0;
+		float pi = 0;
+		for(int p : layout.pilots) {
+			pr += re[p] + im[p];
+			pi += im[p] - re[p];
+		}
+		final float norm = (float)Math.sqrt(pr * pr + pi * pi);
+		final float cr   = norm == 0 ? 1 :  pr / norm;
+		final float ci   = norm == 0 ? 0 : -pi / norm;
+
+		final float mu = Math.max(MIN_MU, 1f / (ESTIMATES + ++tracked));
+		final int k = constellation.getBitsPerSymbol();
+		for(int d : layout.data) {
+			final float i = re[d] * cr - im[d] * ci;
+			final float q = re[d] * ci + im[d] * cr;
+			final int sym = constellation.slice(i, q);
+			track(d, i, q, constellation.i(sym), constellation.q(sym), mu);
+			bits     = (bits << k) | sym;
+			numBits += k;
+			if(numBits >= 8) {
+				numBits -= 8;
+				received(bits >>> numBits);
+				bits &= (1 << numBits) - 1;
+				if(idle) return;
+			}
+		}
+	}
+
+	/**
+	 * Handle one received byte: header or data.
+	 */
+	private void received(int data) {
+		if(header < OFDMSender.HEADER) {
+			msgLength = (msgLength << 8) | (data & 0xFF);
+			if(++header == OFDMSender.HEADER)
+				msgLength++;
+			return;
+		}
+		addData((byte)data);
+		if(++msgCounter == msgLength)
+			idle = true;
+	}
+
+	/**
+	 * Process one sample.
+	 * 
+	 * @param sample The sample to process.
+	 */
+	private void process(float sample) {
+		if(skip > 0) {
+			skip--;
+			return;
+		}
+		if(idle) {
+			powerSum += sample * sample - power[powerIdx];
+			power[powerIdx] = sample * sample;
+			if(++powerIdx == power.length) powerIdx = 0;
+			final float thresh = level.threshold(getVal(START_THRESH));
+			if(powerSum > power.length * thresh * thresh) {
+				startPower = powerSum / power.length;
+				Arrays.fill(power, 0f);
+				powerSum   = 0;
+				idle       = false;
+				training   = true;
+				tracked    = 0;
+				/* The power rises above the threshold about half way through its window. */
+				sampleIdx  = power.length / 2;
+				bits       = 0;
+				numBits    = 0;
+				header     = 0;
+				msgLength  = 0;
+				msgCounter = 0;
+			} else {
+				level.noise(Math.abs(sample));
+				return;
+			}
+		}
+		/* FFT window starts in the middle of the cyclic prefix. */
+		final int window = sampleIdx - layout.cp / 2;
+		if(window >= 0 && window < layout.n)
+			re[window] = sample;
+		if(++sampleIdx < layout.cp / 2 + layout.n)
+			return;
+
+		Arrays.fill(im, 0f);
+		fft.forward(re, im);
+		if(training) {
+			training = false;
+			if(estimate())
+				synced(startPower);
+			else {
+				idle = true;
+				lost();
+			}
+		} else {
+			symbol();
+			decode();
+			/* Skip the rest of the last symbol, its power would trigger a start. */
+			if(idle) skip = layout.cp;
+		}
+		sampleIdx -= layout.symbolSize();
+	}
+
+	/**
+	 * Process samples.
+	 * 
+	 * @param samples The samples to process.
+	 */
+	@Override
+	protected void process(float[] samples) {
+		for(int i = 0; i < samples.length; i++)
+			process(samples[i]);
+	}
+}
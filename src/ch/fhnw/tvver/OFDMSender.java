@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.Arrays;
+
+/**
+ * Sender using orthogonal frequency division multiplexing. The data is QAM modulated
+ * onto the subcarriers inside the pass band of the channel (see OFDMLayout). Each frame
+ * starts with a known training symbol for synchronization and channel estimation, the
+ * first two bytes of a frame carry its length. Pilot subcarriers allow the receiver to 
+ * track the phase.
+ * 
+ * @author agent
+ *
+ */
+public class OFDMSender extends AbstractSender {
+	/* Maximum number of data bytes per frame. */
+	static final int   FRAME_SIZE = 4096;
+	/* Number of header bytes (frame length - 1). */
+	static final int   HEADER     = 2;
+	/* RMS amplitude of the symbols, higher values clip the peaks of the sum of the subcarriers. */
+	private static final float RMS = 0.3f;
+
+	/* The constellation used on each subcarrier. */
+	protected final QAMConstellation constellation;
+
+	private OFDMLayout layout;
+	private FFT        fft;
+	/* Spectrum of the current symbol. */
+	private float[]    re;
+	private float[]    im;
+	/* Scale from spectrum to time domain. */
+	private float      scale;
+	/* Bit accumulator for the current symbol. */
+	private int        bits;
+	private int        numBits;
+	/* Next data subcarrier index of the current symbol. */
+	private int        carrier;
+
+	/**
+	 * Create a 16-QAM OFDM sender.
+	 */
+	public OFDMSender() {
+		this(16);
+	}
+
+	/**
+	 * Create a sender.
+	 * @param order The constellation order per subcarrier, 4, 16, 64 or 256.
+	 */
+	public OFDMSender(int order) {
+		constellation = new QAMConstellation(order);
+	}
+
+	@Override
+	public float[] init(float samplingFrequency) {
+		float[] result = super.init(samplingFrequency);
+		layout = new OFDMLayout(samplingFrequency, constellation);
+		fft    = new FFT(layout.n);
+		re     = new float[layout.n];
+		im     = new float[layout.n];
+		/* Each used subcarrier contributes the mean power of the constellation to the power of a symbol. */
+		final int used = layout.data.length + layout.pilots.length;
+		scale  = (float)(RMS / Math.sqrt(2 * used * constellation.power()));
+		return result;
+	}
+
+	/**
+	 * Transform the spectrum in re / im and write the symbol with cyclic prefix. 
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the symbol.
+	 */
+	private int symbol(float[] dst, int off) {
+		fft.inverse(re, im);
+		final int n  = layout.n;
+		final int cp = layout.cp;
+		for(int i = 0; i < n; i++) {
+			float v = 2 * scale * re[i];
+			dst[off + cp + i] = v > 1 ? 1 : v < -1 ? -1 : v;
+		}
+		System.arraycopy(dst, off + n, dst, off, cp);
+		Arrays.fill(re, 0f);
+		Arrays.fill(im, 0f);
+		return off + n + cp;
+	}
+
+	/**
+	 * Write the training symbol.
+	 */
+	private int training(float[] dst, int off) {
+		System.arraycopy(layout.trainingRe, 0, re, 0, layout.n);
+		System.arraycopy(layout.trainingIm, 0, im, 0, layout.n);
+		return symbol(dst, off);
+	}
+
+	/**
+	 * Add one byte to the current symbol, writing the symbol when all data subcarriers are used.
+	 */
+	private int add(int data, float[] dst, int off) {
+		final int k = constellation.getBitsPerSymbol();
+		bits     = (bits << 8) | (data & 0xFF);
+		numBits += 8;
+		while(numBits >= k) {
+			numBits -= k;
+			off = put((bits >>> numBits) & (constellation.getOrder() - 1), dst, off);
+		}
+		bits &= (1 << numBits) - 1;
+		return off;
+	}
+
+	/**
+	 * Put a QAM symbol on the next data subcarrier, writing the symbol when all data subcarriers are used.
+	 */
+	private int put(int symbol, float[] dst, int off) {
+		re[layout.data[carrier]] = constellation.i(symbol);
+		im[layout.data[carrier]] = constellation.q(symbol);
+		if(++carrier == layout.data.length)
+			off = flush(dst, off);
+		return off;
+	}
+
+	/**
+	 * Write the current symbol with pilots, unused data subcarriers are zero.
+	 */
+	private int flush(float[] dst, int off) {
+		for(int p : layout.pilots) {
+			re[p] = QAMConstellation.AMP;
+			im[p] = QAMConstellation.AMP;
+		}
+		carrier = 0;
+		return symbol(dst, off);
+	}
+
+	/**
+	 * Write one frame: training symbol, length, data and a short pause.
+	 */
+	private int synthesizeFrame(byte[] src, int off, int len, float[] dst, int dstOff) {
+		bits    = 0;
+		numBits = 0;
+		carrier = 0;
+		dstOff = training(dst, dstOff);
+		dstOff = add((len - 1) >> 8, dst, dstOff);
+		dstOff = add(len - 1, dst, dstOff);
+		for(int i = off; i < off + len; i++)
+			dstOff = add(src[i], dst, dstOff);
+		/* Pad the last QAM symbol with zero bits. */
+		if(numBits > 0)
+			dstOff = put((bits << (constellation.getBitsPerSymbol() - numBits)) & (constellation.getOrder() - 1), dst, dstOff);
+		if(carrier > 0)
+			dstOff = flush(dst, dstOff);
+		Arrays.fill(dst, dstOff, dstOff + layout.cp, 0f);
+		return dstOff + layout.cp;
+	}
+
+	/**
+	 * @param len Number of data bytes.
+	 * @return Number of samples of a frame with len bytes.
+	 */
+	private int frameSize(int len) {
+		final int bitsPerSymbol = layout.data.length * constellation.getBitsPerSymbol();
+		final int numSymbols    = (8 * (len + HEADER) + bitsPerSymbol - 1) / bitsPerSymbol;
+		return (1 + numSymbols) * layout.symbolSize() + layout.cp;
+	}
+
+	@Override
+	public float[] synthesize(byte data) {
+		return synthesize(new byte[] {data});
+	}
+
+	/**
+	 * Frames are synthesized independently.
+	 */
+	@Override
+	public int getChunkSize() {
+		return FRAME_SIZE;
+	}
+
+	@Override
+	public int getNumSamples(byte[] data, int off, int len) {
+		int rest = len % FRAME_SIZE;
+		return (len / FRAME_SIZE) * frameSize(FRAME_SIZE) + (rest == 0 ? 0 : frameSize(rest));
+	}
+
+	@Override
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		int pos = dstOff;
+		for(int i = 0; i < len; i += FRAME_SIZE)
+			pos = synthesizeFrame(src, off + i, Math.min(FRAME_SIZE, len - i), dst, pos);
+		return pos - dstOff;
+	}
+}
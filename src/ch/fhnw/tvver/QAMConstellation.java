@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Square M-QAM constellation with Gray coded axes. The upper half of the symbol bits
+ * selects the in-phase (cosine) level, the lower half the quadrature (sine) level.
+ * Neighbouring levels differ in a single bit. Levels are normalized such that the
+ * corner points have an amplitude of 0.7 per axis.
+ * 
+ * Slicing uses a lookup table per axis and thus takes constant time regardless of
+ * the constellation order. The decision thresholds can be calibrated from measured 
+ * levels.
+ * 
+ * @author agent
+ *
+ */
+public final class QAMConstellation {
+	/* Amplitude of the outermost level per axis. */
+	static final float AMP = 0.7f;
+	/* Range covered by the slicer table, relative to the reference amplitude. */
+	private static final float RANGE      = 1.5f;
+	/* Resolution of the slicer table. */
+	private static final int   TABLE_SIZE = 1024;
+
+	private final int     order;
+	private final int     bitsPerSymbol;
+	/* Levels per axis. */
+	private final int     numLevels;
+	/* Level amplitude for each Gray code. */
+	private final float[] level;
+	/* Gray code for each quantized amplitude. */
+	private final byte[]  slicer = new byte[TABLE_SIZE];
+
+	/**
+	 * Create a constellation.
+	 * @param order Number of constellation points, 4, 16, 64 or 256.
+	 */
+	public QAMConstellation(int order) {
+		if(order != 4 && order != 16 && order != 64 && order != 256)
+			throw new IllegalArgumentException("Unsupported QAM order:" + order);
+		this.order         = order;
+		this.bitsPerSymbol = Integer.numberOfTrailingZeros(order);
+		this.numLevels     = 1 << (bitsPerSymbol / 2);
+		this.level         = new float[numLevels];
+		for(int i = 0; i < numLevels; i++)
+			level[gray(i)] = level(i);
+		reset();
+	}
+
+	/**
+	 * Nominal amplitude of the level with the given index.
+	 * @param idx Level index, 0 is the most negative level.
+	 * @return The amplitude.
+	 */
+	public float level(int idx) {
+		return AMP * (2 * idx - (numLevels - 1)) / (numLevels - 1);
+	}
+
+	private static int gray(int idx) {
+		return idx ^ (idx >> 1);
+	}
+
+	/**
+	 * Set the decision thresholds half way between measured levels.
+	 * @param levels Measured amplitudes of the levels in index order.
+	 */
+	public void calibrate(float[] levels) {
+		int idx = 0;
+		for(int i = 0; i < TABLE_SIZE; i++) {
+			float v = ((2f * i + 1) / TABLE_SIZE - 1) * RANGE;
+			while(idx < numLevels - 1 && v > 0.5f * (levels[idx] + levels[idx + 1]))
+				idx++;
+			slicer[i] = (byte)gray(idx);
+		}
+	}
+
+	/**
+	 * Reset the decision thresholds to the nominal levels.
+	 */
+	public void reset() {
+		float[] levels = new float[numLevels];
+		for(int i = 0; i < numLevels; i++)
+			levels[i] = level(i);
+		calibrate(levels);
+	}
+
+	private int slice(float v) {
+		int i = (int)((v / RANGE + 1) * 0.5f * TABLE_SIZE);
+		return slicer[i < 0 ? 0 : i >= TABLE_SIZE ? TABLE_SIZE - 1 : i] & 0xFF;
+	}
+
+	/**
+	 * Find the nearest constellation point.
+	 * @param i In-phase amplitude.
+	 * @param q Quadrature amplitude.
+	 * @return The symbol bits.
+	 */
+	public int slice(float i, float q) {
+		return (slice(i) << (bitsPerSymbol / 2)) | slice(q);
+	}
+
+	/**
+	 * @param symbol The symbol bits.
+	 * @return In-phase amplitude of the symbol.
+	 */
+	public float i(int symbol) {
+		return level[symbol >> (bitsPerSymbol / 2)];
+	}
+
+	/**
+	 * @param symbol The symbol bits.
+	 * @return Quadrature amplitude of the symbol.
+	 */
+	public float q(int symbol) {
+		return level[symbol & (numLevels - 1)];
+	}
+
+	/**
+	 * @return Mean power i^2 + q^2 of the constellation points.
+	 */
+	public float power() {
+		float sum = 0;
+		for(float l : level)
+			sum += l * l;
+		return 2 * sum / numLevels;
+	}
+
+	public int getOrder() {
+		return order;
+	}
+
+	public int getBitsPerSymbol() {
+		return bitsPerSymbol;
+	}
+
+	/**
+	 * @return Number of levels per axis.
+	 */
+	public int getNumLevels() {
+		return numLevels;
+	}
+}
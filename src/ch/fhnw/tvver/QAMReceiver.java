@@ -28,209 +28,594 @@
  */
 package ch.fhnw.tvver;
 
-import ch.fhnw.ether.media.Parameter;
+import java.util.Arrays;
 
-import java.util.*;
-import ch.fhnw.util.ClassUtilities;
-import ch.fhnw.tvver.QAMSender;
+import ch.fhnw.ether.media.Parameter;
 
 /**
- * Simple receiver using amplitude modulation.
+ * Receiver for QAMSender. Symbols are demodulated coherently by correlating them with 
+ * the cosine (in-phase) and sine (quadrature) carrier. The start symbol of each frame
+ * serves as amplitude reference, a small decision directed equalizer removes the
+ * remaining distortion and the interference from the previous symbol. A calibration 
+ * frame sent by QAMSender.init() adjusts the decision thresholds to the measured 
+ * constellation levels.
+ * 
+ * Before the first frame symbol is decided, the receiver acquires the symbol timing, 
+ * gain and phase from the training sequence after the start symbol: for each candidate 
+ * start in steps of a quarter sample around the detected start, the equalizer is fitted 
+ * to the known training symbols by least squares. The candidate with the smallest 
+ * residual sets the timing and the equalizer, a residual above MAX_TRAINING_ERROR 
+ * rejects the start as noise. Candidates whose equalizer gain is far from one are skipped, 
+ * their start symbol window holds mostly noise.
+ * 
+ * Within the frame, the timing follows the gradient of the decision error with respect 
+ * to the symbol start, thus it stays at the least squares optimum of the training. 
+ * Fractional timing is obtained by cubic interpolation between correlations at 
+ * adjacent sample offsets.
  * 
  * @author sschubiger
  *
  */
 public class QAMReceiver extends AbstractReceiver {
 
-	/* Experimental threshold for detecting start tone. Should be adaptive. */
-	private static final Parameter START_THRESH = new Parameter("start", "Start Threshold", 0,0.5f,0.2f);
+	/* Threshold for detecting start tone, relative to the mean magnitude of the noise. */
+	private static final Parameter START_THRESH = new Parameter("start", "Start Threshold", 1,20f,6f);
 	/* Threshold for detecting binary "one". */
 	private static final Parameter ONE_THRESH   =  new Parameter("one",  "One Threshold", 0,1f,0.5f);
 
-	private QAMSender sender = new QAMSender();
+	/* Start threshold relative to the amplitude of the previous start symbol, ignores filter tails. */
+	private static final float     START_LEVEL  = 0.1f;
+	/* Idle time in seconds after which the previous start symbol is forgotten. */
+	private static final double    START_TIMEOUT = 0.1;
+
+	/* Equalizer adaption rate. */
+	private static final float     MU           = 0.1f;
+	/* Timing loop gain, fraction of the timing error estimated from one symbol. */
+	private static final float     TIMING_GAIN  = 0.05f;
+	/* Largest timing error in samples taken from one symbol. */
+	private static final float     TIMING_CLAMP = 0.5f;
+	/* Candidate symbol starts per sample during acquisition. */
+	private static final int       FRACTIONS    = 4;
+	/* Largest residual of the training fit, relative to the energy of the training symbols. */
+	private static final float     MAX_TRAINING_ERROR = 0.5f;
+	/* Largest factor between the equalizer gain and one. The training symbols are sent at the level of the start symbol. */
+	private static final float     MAX_TRAINING_GAIN  = 4f;
+
+	private static final double PI2  = Math.PI * 2;
+
+	/* The constellation. */
+	private final QAMConstellation constellation;
 
 	/* Idle / data state */
 	private boolean       idle = true;
-	/* Index for accumulating samples */
+	/* Number of samples received of the current symbol, starting at its nominal start */
 	private int           energyIdx;
-	/* Energy accumulator */
-	private final float[] energy = new float[12]; // 16 + 1 Treshold byte
-	/* Sample index into the current symbol */
-	//private int           sampleIdx;
-	/* Symbol phase of start symbol */
-	private int           symbolPhase;
-	/* ArrayList for comparison Objects */
-	float[][] comparison = new float[4][];
+	/* Recent samples (ring buffer): one sample before the nominal symbol start up to two after its end */
+	private float[]       history;
+	private int           historyIdx;
+	/* Samples of the current symbol and its neighborhood, copied from history */
+	private float[]       energy;
+	/* Correlations (in-phase, quadrature) at the sample offsets -1, 0, 1 and 2 from the nominal start */
+	private final float[] corrI = new float[4];
+	private final float[] corrQ = new float[4];
+	/* Result of one correlation */
+	private final float[] iq    = new float[2];
+	/* Fractional symbol start after the nominal start, [0..1) */
+	private float         mu;
+	/* Carrier templates for one symbol */
+	private float[]       cos;
+	private float[]       sin;
+	/* Phase and amplitude reference from the start symbol (sine with amplitude 1). */
+	private float         refRe;
+	private float         refIm;
+	/* Demodulated in-phase and quadrature amplitude of the current symbol. */
+	private float         i;
+	private float         q;
+	/* Change of i and q per sample of later symbol start. */
+	private float         di;
+	private float         dq;
+	/* Bit accumulator and number of bits in it */
+	private int           bits;
+	private int           numBits;
+	/* Calibration state: symbol index into the calibration frame or -1. */
+	private int           calIdx = -1;
+	/* Accumulated amplitudes of the constellation levels. */
+	private final float[] levels;
+	/* Samples to skip after the end of a frame. */
+	private int           skip;
+	/* Samples since the end of the last frame. */
+	private int           idleCount;
+	/* Equalizer: 2x2 feed-forward matrix w and 2x2 feedback matrix f on the previous symbol. */
+	private final float[] w = {1, 0, 0, 1};
+	private final float[] f = new float[4];
+	/* Previous symbol (decided or known). */
+	private float         prevI;
+	private float         prevQ;
+	/* Equalizer input of the current symbol. */
+	private float         yi;
+	private float         yq;
+
+	/* Search range for the frame start around the detected start, in samples. */
+	private int           range;
+	/* Start and training symbols, from range + 1 samples before the detected start, and the number received or -1. */
+	private float[]       preamble;
+	private int           preambleIdx = -1;
+	/* Correlations of the preamble symbols at all integer candidate starts. */
+	private float[]       preI;
+	private float[]       preQ;
+	/* Training fit: features of one symbol, normal equations (matrix and right hand sides for i and q), 
+	 * solutions and elimination scratch. */
+	private final float[]  x  = new float[4];
+	private final double[] a  = new double[16];
+	private final double[] bi = new double[4];
+	private final double[] bq = new double[4];
+	private final double[] ci = new double[4];
+	private final double[] cq = new double[4];
+	private final double[] m  = new double[16];
 
     private int msgLength = Integer.MAX_VALUE;
     private int msgCounter = 0;
 
-	private boolean first = true;
 	private boolean second = true;
+	private boolean header = true;
 
-	String bitString = new String();
-
-	private final int symbolSz = (int) 48000/4000; // =12 (samplingFrequency / SimpleAMSender.FREQ);
+	/* Samples per symbol, set by init(). */
+	private int           symbolSz;
 
+	/**
+	 * Create a 4-QAM receiver.
+	 */
 	public QAMReceiver() {
+		this(4);
+	}
+
+	/**
+	 * Create a receiver.
+	 * @param order The constellation order, 4, 16, 64 or 256.
+	 */
+	public QAMReceiver(int order) {
 		super(START_THRESH, ONE_THRESH);
-		initComparisonList();
+		constellation = new QAMConstellation(order);
+		levels        = new float[constellation.getNumLevels()];
 	}
 
-	private static final double PI2  = Math.PI * 2;
+	/**
+	 * Set up the symbol geometry for the sampling frequency and reset the decision thresholds.
+	 */
+	@Override
+	public void init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		symbolSz = QAMSender.symbolSize(samplingFrequency);
+		history  = new float[symbolSz + 3];
+		energy   = new float[symbolSz + 3];
+		cos      = new float[symbolSz];
+		sin      = new float[symbolSz];
+		for(int i = 0; i < symbolSz; i++) {
+			cos[i] = (float)Math.cos(PI2*i/symbolSz);
+			sin[i] = (float)Math.sin(PI2*i/symbolSz);
+		}
+		/* The symbol after the preamble must start at most symbolSz + 1 samples before its end. */
+		range    = (symbolSz - 1) / 2;
+		preamble = new float[2 * range + 3 + (1 + QAMSender.TRAINING_LENGTH) * symbolSz];
+		preI     = new float[(1 + QAMSender.TRAINING_LENGTH) * (2 * range + 4)];
+		preQ     = new float[preI.length];
+		historyIdx = 0;
+		endOfFrame();
+		constellation.reset();
+	}
+
+	/**
+	 * Correlate the samples in energy[] with the carrier at the sample offsets -1..2 from
+	 * the nominal symbol start. 
+	 */
+	private void correlate() {
+		for(int k = 0; k < 4; k++) {
+			DSP.INSTANCE.mix(energy, k, cos, sin, symbolSz, iq);
+			corrI[k] = iq[0];
+			corrQ[k] = iq[1];
+		}
+	}
+
+	/**
+	 * Cubic (Catmull-Rom) interpolation between y1 and y2.
+	 * @param y Values at the offsets -1, 0, 1 and 2 from off.
+	 * @param off Offset of y0 into y.
+	 * @param t Fractional offset from y1, 0..1.
+	 * @return The interpolated value.
+	 */
+	private static float cubic(float[] y, int off, float t) {
+		final float y0 = y[off];
+		final float y1 = y[off + 1];
+		final float y2 = y[off + 2];
+		final float y3 = y[off + 3];
+		return y1 + 0.5f * t * (y2 - y0 + t * (2 * y0 - 5 * y1 + 4 * y2 - y3 + t * (3 * (y1 - y2) + y3 - y0)));
+	}
 
-	private void initComparisonList(){
-		// Decode 00
-		comparison[0] = symbol(-1, -1);
-		// Decode 01
-		comparison[1] = symbol(-1, 1);
-		// Decode 10
-		comparison[2] = symbol(1, -1);
-		// Decode 11
-		comparison[3] = symbol(1, 1);
+	/**
+	 * Interpolate the correlation at a fractional offset from the nominal symbol start 
+	 * and derotate it by the reference. Sets i and q. Offsets within 0..1 are interpolated 
+	 * cubically, others linearly.
+	 * @param offset Offset in samples, -1..2.
+	 */
+	private void interpolate(float offset) {
+		if(offset >= 0 && offset < 1) {
+			i = cubic(corrI, 0, offset);
+			q = cubic(corrQ, 0, offset);
+		} else {
+			final int   k = Math.min(2, (int)Math.floor(offset + 1));
+			final float f = offset + 1 - k;
+			i = corrI[k] + (corrI[k + 1] - corrI[k]) * f;
+			q = corrQ[k] + (corrQ[k + 1] - corrQ[k]) * f;
+		}
+		derotate(q, i);
+	}
 
+	/**
+	 * Rotate and scale (q + j*i) by the reference. Sets i and q.
+	 * @param re Quadrature amplitude.
+	 * @param im In-phase amplitude.
+	 */
+	private void derotate(float re, float im) {
+		/* (q + j*i) * conj(ref) */
+		q = re * refRe + im * refIm;
+		i = im * refRe - re * refIm;
 	}
 
+	/**
+	 * Demodulate the current symbol at the current timing estimate. Sets i and q, and
+	 * di and dq from the symbols half a sample earlier and later.
+	 */
+	private void demodulate() {
+		/* Copy history, oldest sample first. */
+		final int n = history.length;
+		System.arraycopy(history, historyIdx, energy, 0, n - historyIdx);
+		System.arraycopy(history, 0, energy, n - historyIdx, historyIdx);
+		correlate();
 
-	private float[] symbol(int msb, int lsb) {
-		final float[] result = new float[symbolSz];
+		interpolate(mu + 0.5f);
+		di = i;
+		dq = q;
+		interpolate(mu - 0.5f);
+		di -= i;
+		dq -= q;
+		interpolate(mu);
+	}
 
-		for(int i = 0; i < result.length; i++)
-			result[i] = (float)( 0.7f * (lsb*Math.sin(PI2*i/symbolSz)
-					+ (msb*Math.cos(PI2*i/symbolSz))));
+	/**
+	 * Equalize the demodulated symbol: cancel the interference from the previous symbol 
+	 * and the distortion the phase reference does not capture. Sets i and q, di and dq.
+	 */
+	private void equalize() {
+		float ei = w[0] * i + w[1] * q - f[0] * prevI - f[1] * prevQ;
+		float eq = w[2] * i + w[3] * q - f[2] * prevI - f[3] * prevQ;
+		float ed = w[0] * di + w[1] * dq;
+		dq = w[2] * di + w[3] * dq;
+		di = ed;
+		yi = i;
+		yq = q;
+		i  = ei;
+		q  = eq;
+	}
 
-		return result;
+	/**
+	 * Adapt the equalizer (LMS) and the timing, remember the symbol for interference cancellation.
+	 * @param si In-phase amplitude of the decided or known symbol.
+	 * @param sq Quadrature amplitude of the decided or known symbol.
+	 */
+	private void train(float si, float sq) {
+		final float ei = (i - si);
+		final float eq = (q - sq);
+
+		/* Timing error in samples, estimated from the decision error along the slope of the symbol. */
+		final float slope = di * di + dq * dq;
+		if(slope > 0) {
+			final float error = Math.max(-TIMING_CLAMP, Math.min(TIMING_CLAMP, (ei * di + eq * dq) / slope));
+			mu -= TIMING_GAIN * error;
+			/* Whole sample slips move the window of the next symbol. */
+			if(mu >= 1) { mu -= 1; energyIdx--; }
+			if(mu <  0) { mu += 1; energyIdx++; }
+		}
+
+		/* Symbols start in carrier phase, thus a rotation is a timing error: leave it to the timing 
+		 * loop and drop the rotation from the update of w. */
+		final float sym = MU * (ei * yq + eq * yi) / 2;
+		w[0] -= MU * ei * yi; w[1] -= sym;
+		w[2] -= sym;          w[3] -= MU * eq * yq;
+		f[0] += MU * ei * prevI; f[1] += MU * ei * prevQ;
+		f[2] += MU * eq * prevI; f[3] += MU * eq * prevQ;
+		prevI = si;
+		prevQ = sq;
 	}
 
 	/**
-	 * Process one sample (power).
-	 * 
+	 * Acquire timing, gain and phase from the preamble, which holds the start symbol and 
+	 * the training sequence from range + 1 samples before the detected start.
+	 * @return True if the training sequence was found.
+	 */
+	private boolean acquire() {
+		/* Correlate all preamble symbols at all integer candidate starts. */
+		final int starts = 2 * range + 4;
+		for(int k = 0; k <= QAMSender.TRAINING_LENGTH; k++)
+			for(int s = 0; s < starts; s++) {
+				DSP.INSTANCE.mix(preamble, s + k * symbolSz, cos, sin, symbolSz, iq);
+				preI[k * starts + s] = iq[0];
+				preQ[k * starts + s] = iq[1];
+			}
+
+		float best      = Float.MAX_VALUE;
+		int   bestStart = 0;
+		for(int s = FRACTIONS; s < (starts - 2) * FRACTIONS; s++) {
+			final float error = fit(s / FRACTIONS, (s % FRACTIONS) / (float)FRACTIONS);
+			if(error < best) {
+				best      = error;
+				bestStart = s;
+			}
+		}
+		if(best > MAX_TRAINING_ERROR)
+			return false;
+
+		/* Set up the equalizer and timing for the candidate, the next symbol is the frame type. */
+		final int start = bestStart / FRACTIONS;
+		fit(start, (bestStart % FRACTIONS) / (float)FRACTIONS);
+		w[0] = (float) ci[0]; w[1] = (float) ci[1];
+		w[2] = (float) cq[0]; w[3] = (float) cq[1];
+		f[0] = (float)-ci[2]; f[1] = (float)-ci[3];
+		f[2] = (float)-cq[2]; f[3] = (float)-cq[3];
+		mu        = (bestStart % FRACTIONS) / (float)FRACTIONS;
+		energyIdx = preamble.length - start - (1 + QAMSender.TRAINING_LENGTH) * symbolSz;
+		prevI     = QAMSender.training(QAMSender.TRAINING_LENGTH - 1, false);
+		prevQ     = QAMSender.training(QAMSender.TRAINING_LENGTH - 1, true);
+
+		/* Amplitude of the start sine from its correlation with the carrier. */
+		level.signal(1 / (float)Math.sqrt(refRe * refRe + refIm * refIm) * 2 / symbolSz);
+		synced(level.signal() * level.signal() / 2);
+		return true;
+	}
+
+	/**
+	 * Fit the equalizer to the training sequence by least squares for one candidate start. 
+	 * Sets the reference from the start symbol, and ci and cq to the equalizer rows 
+	 * (w[0], w[1], -f[0], -f[1]) and (w[2], w[3], -f[2], -f[3]).
+	 * @param start Integer part of the candidate start in the preamble, 1..2 * range + 1.
+	 * @param frac Fractional part of the candidate start.
+	 * @return Residual of the fit relative to the energy of the training symbols.
+	 */
+	private float fit(int start, float frac) {
+		final int starts = 2 * range + 4;
+		float re = cubic(preQ, start - 1, frac);
+		float im = cubic(preI, start - 1, frac);
+		final float norm = re * re + im * im;
+		if(norm == 0) return Float.MAX_VALUE;
+		refRe = re / norm;
+		refIm = im / norm;
+
+		Arrays.fill(a, 0);
+		Arrays.fill(bi, 0);
+		Arrays.fill(bq, 0);
+		double energy = 0;
+		/* The start symbol is a sine with amplitude 1. */
+		float pi = 0;
+		float pq = 1;
+		for(int k = 1; k <= QAMSender.TRAINING_LENGTH; k++) {
+			final int idx = k * starts + start;
+			derotate(cubic(preQ, idx - 1, frac), cubic(preI, idx - 1, frac));
+			final float ti = QAMSender.training(k - 1, false);
+			final float tq = QAMSender.training(k - 1, true);
+			x[0] = i; x[1] = q; x[2] = pi; x[3] = pq;
+			for(int r = 0; r < 4; r++) {
+				for(int c = 0; c < 4; c++)
+					a[r * 4 + c] += x[r] * x[c];
+				bi[r] += x[r] * ti;
+				bq[r] += x[r] * tq;
+			}
+			energy += ti * ti + tq * tq;
+			pi = ti;
+			pq = tq;
+		}
+		if(!(solve())) return Float.MAX_VALUE;
+		/* Determinant of w, the square of its gain. */
+		final double gain = Math.abs(ci[0] * cq[1] - ci[1] * cq[0]);
+		if(!(gain > 1 / (MAX_TRAINING_GAIN * MAX_TRAINING_GAIN) && gain < MAX_TRAINING_GAIN * MAX_TRAINING_GAIN)) return Float.MAX_VALUE;
+		/* The residual of a least squares fit is the target energy minus the fitted part. */
+		double residual = energy;
+		for(int r = 0; r < 4; r++)
+			residual -= ci[r] * bi[r] + cq[r] * bq[r];
+		return (float)(residual / energy);
+	}
+
+	/**
+	 * Solve the normal equations of the training fit by Gaussian elimination with 
+	 * partial pivoting. 
+	 * @return False if the normal equations are singular.
+	 */
+	private boolean solve() {
+		System.arraycopy(a, 0, m, 0, 16);
+		System.arraycopy(bi, 0, ci, 0, 4);
+		System.arraycopy(bq, 0, cq, 0, 4);
+		for(int c = 0; c < 4; c++) {
+			int pivot = c;
+			for(int r = c + 1; r < 4; r++)
+				if(Math.abs(m[r * 4 + c]) > Math.abs(m[pivot * 4 + c]))
+					pivot = r;
+			if(m[pivot * 4 + c] == 0) return false;
+			if(pivot != c) {
+				for(int k = 0; k < 4; k++) {
+					final double t = m[c * 4 + k]; m[c * 4 + k] = m[pivot * 4 + k]; m[pivot * 4 + k] = t;
+				}
+				double t = ci[c]; ci[c] = ci[pivot]; ci[pivot] = t;
+				t = cq[c]; cq[c] = cq[pivot]; cq[pivot] = t;
+			}
+			for(int r = c + 1; r < 4; r++) {
+				final double factor = m[r * 4 + c] / m[c * 4 + c];
+				for(int k = c; k < 4; k++)
+					m[r * 4 + k] -= factor * m[c * 4 + k];
+				ci[r] -= factor * ci[c];
+				cq[r] -= factor * cq[c];
+			}
+		}
+		for(int r = 3; r >= 0; r--) {
+			for(int k = r + 1; k < 4; k++) {
+				ci[r] -= m[r * 4 + k] * ci[k];
+				cq[r] -= m[r * 4 + k] * cq[k];
+			}
+			ci[r] /= m[r * 4 + r];
+			cq[r] /= m[r * 4 + r];
+		}
+		return true;
+	}
+
+	/**
+	 * Accumulate one calibration symbol. After the last symbol, the decision
+	 * thresholds are set from the averaged levels.
+	 */
+	private void calibrate() {
+		final float level = constellation.level(calIdx / QAMSender.CAL_REPEAT);
+		levels[calIdx / QAMSender.CAL_REPEAT] += (i + q) / (2 * QAMSender.CAL_REPEAT);
+		train(level, level);
+		if(++calIdx == levels.length * QAMSender.CAL_REPEAT) {
+			constellation.calibrate(levels);
+			endOfFrame();
+		}
+	}
+
+	/**
+	 * Skip the silence after a frame and wait for the next start symbol.
+	 */
+	private void endOfFrame() {
+		calIdx      = -1;
+		bits        = 0;
+		numBits     = 0;
+		msgCounter  = 0;
+		msgLength   = Integer.MAX_VALUE;
+		second      = true;
+		header      = true;
+		preambleIdx = -1;
+		skip        = QAMSender.SILENCE * symbolSz / 2;
+		idleCount   = 0;
+		idle        = true;
+	}
+
+	/**
+	 * Wait for a start symbol.
 	 * @param sample The sample to process.
+	 * @return True if the sample may belong to a start symbol.
 	 */
-//	private void process(float sample) {
-//		final int symbolSz = (int) (samplingFrequency / SimpleAMSender.FREQ);
-//		symbolPhase        = symbolSz / 4;
-//
-//		/* Wait for signal to rise above start threshold. */
-//		if(idle) {
-//			if(sample > getVal(START_THRESH)) {
-//				sampleIdx = symbolPhase;
-//				idle     = false;
-//			}
-//		} else {
-//			/* Accumulate energy */
-//			energy[energyIdx] += sample;
-//			/* End of symbol? */
-//			if(++sampleIdx == symbolSz) {
-//				/* Advance to next symbol */
-//				sampleIdx = 0;
-//				energyIdx++;
-//				/* Enough data for a byte? */
-//				if(energyIdx == energy.length) {
-//					/*  Collect bits. */
-//					int val = 0;
-//					for(int i = 0; i < 4; i++)
-//						/* Use first symbol as reference value */
-//						if(energy[i+1] > getVal(ONE_THRESH) * energy[0])
-//							val |= 1 << i;
-//                    addData((byte) val);
-//					/* Advance to next data byte */
-//					energyIdx = 0;
-//					sampleIdx = symbolPhase;
-//					Arrays.fill(energy, 0f);
-//					idle = true;
-//				}
-//			}
-//		}
-//	}
+	private boolean detect(float sample) {
+		if(++idleCount == (int)(START_TIMEOUT * samplingFrequency))
+			level.resetSignal();
+		if(skip > 0) {
+			skip--;
+			return false;
+		}
+		if(sample > Math.max(level.threshold(getVal(START_THRESH)), level.signal() * START_LEVEL))
+			return true;
+		level.noise(Math.abs(sample));
+		return false;
+	}
+
+	/**
+	 * Reject a start without training sequence, e.g. a noise peak. The frame may start within 
+	 * the preamble, thus the samples after the rejected start are searched again.
+	 */
+	private void reject() {
+		lost();
+		endOfFrame();
+		skip = 0;
+		for(int k = range + 2; k < preamble.length; k++)
+			if(detect(preamble[k])) {
+				idle = false;
+				final int from = k - range - 1;
+				System.arraycopy(preamble, from, preamble, 0, preamble.length - from);
+				preambleIdx = preamble.length - from;
+				return;
+			}
+	}
 
+	/**
+	 * Process one sample.
+	 * 
+	 * @param sample The sample to process.
+	 */
     private void process(float sample) {
-		symbolPhase        = symbolSz / 4;
+		/* Keep recent samples for the timing recovery. */
+		history[historyIdx] = sample;
+		if(++historyIdx == history.length)
+			historyIdx = 0;
+
 		if(idle) {
-			if(sample > getVal(START_THRESH)) {
-				//sampleIdx = symbolPhase;
+			if(detect(sample)) {
 				idle = false;
-				energyIdx = 2;
+				/* Keep range + 1 samples before the detected start, history ends with the current sample. */
+				for(int k = 0; k <= range + 1; k++)
+					preamble[range + 1 - k] = history[(historyIdx - 1 - k + history.length) % history.length];
+				preambleIdx = range + 2;
 			}
-		} else {
-			/* Accumulate energy */
-			energy[energyIdx] = sample;
-
-			/* End of symbol? */
-			if(++energyIdx == symbolSz) {
-				/* Enough data for a byte? */
-				if(first){
-					first = false;
-					energyIdx = 0;
-					Arrays.fill(energy, 0f);
-					return;
-				}
+			return;
+		}
+
+		if(preambleIdx >= 0) {
+			preamble[preambleIdx] = sample;
+			if(++preambleIdx < preamble.length)
+				return;
+			preambleIdx = -1;
+			if(!(acquire()))
+				reject();
+			return;
+		}
+
+		/* End of symbol? Two more samples are needed for the late correlation. */
+		if(++energyIdx < symbolSz + 2)
+			return;
+
+		energyIdx = 2;
+		demodulate();
+		equalize();
+		symbol();
+		if(header) {
+			header = false;
+			/* Frame type: calibration (+,+) or data (-,-). */
+			if(i + q > 0)
+				calIdx = 0;
+			train(i + q > 0 ? QAMConstellation.AMP : -QAMConstellation.AMP, i + q > 0 ? QAMConstellation.AMP : -QAMConstellation.AMP);
+			Arrays.fill(levels, 0f);
+			return;
+		}
+		if(calIdx >= 0) {
+			calibrate();
+			return;
+		}
 
-				/*  Collect bits. */
-                int symbolIndex = 5;
-                float minSum = Float.MAX_VALUE;
-                for(int i = 0; i < comparison.length; i++){
-                    float sum = 0f;
-                    for(int j=2; j<comparison[i].length-3; j++){
-                        //System.out.println("Comparison i="+comparison[i][j]+" Energy="+energy[j]);
-                        //System.out.println("comparison["+i+"]["+j+"] "+comparison[i][j]+" - energy"+energy[j]);
-                        sum += Math.abs((energy[j+1] - energy[j]) -(comparison[i][j+1]-comparison[i][j]) );
-                    }
-                    //System.out.println("Sum="+Math.abs(sum));
-                    if(Math.abs(sum) < minSum){
-                        symbolIndex = i;
-                        minSum = Math.abs(sum);
-                    }
-                }
-
-                if(symbolIndex == 0){
-                    bitString += "00";
-                }else if(symbolIndex == 1){
-                    bitString += "01";
-                }else if(symbolIndex == 2){
-                    bitString += "10";
-                }else if(symbolIndex == 3){
-                    bitString += "11";
-                }
-
-                if(bitString.length() >= 8){
-                    //System.out.println(bitString);
-                    if(second) {
-                        msgLength = Integer.valueOf(bitString, 2);
-                        msgLength++;
-                        second = false;
-                    } else {
-                        byte[] bytes = new byte[bitString.length() / 8];
-                        for (int i = 0; i < bytes.length; i++) {
-                            String byteString = bitString.substring(i * 8, (i + 1) * 8);
-                            bytes[i] = (byte) (int) Integer.valueOf(byteString, 2); // Byte.parseByte(byteString, 2);
-                        }
-                        msgCounter++;
-                        if (msgCounter > msgLength) {
-                            msgCounter = 0;
-                            msgLength = Integer.MAX_VALUE;
-                            idle = true;
-                            first = true;
-                            second = true;
-                        } else {
-                            addData(bytes[0]);
-                        }
-                    }
-                    bitString = "";
-                }
-
-                    //addData((byte) val);
-                /* Advance to next data byte */
-                energyIdx = 0;
-                Arrays.fill(energy, 0f);
-                //idle = true;
-		  	}
-        }
-    }
-
-
-	/**
-	 * Process samples. Samples are squared (power).
+		if(second) {
+			/* Length as 4-QAM symbols. */
+			bits = (bits << 2) | (i > 0 ? 0b10 : 0) | (q > 0 ? 0b01 : 0);
+			train(i > 0 ? QAMConstellation.AMP : -QAMConstellation.AMP, q > 0 ? QAMConstellation.AMP : -QAMConstellation.AMP);
+			if((numBits += 2) == 8 * QAMSender.HEADER) {
+				msgLength = (bits & ((1 << 8 * QAMSender.HEADER) - 1)) + 1;
+				second    = false;
+				bits      = 0;
+				numBits   = 0;
+			}
+			return;
+		}
+
+		/*  Collect bits. */
+		final int symbol = constellation.slice(i, q);
+		train(constellation.i(symbol), constellation.q(symbol));
+		bits     = (bits << constellation.getBitsPerSymbol()) | symbol;
+		numBits += constellation.getBitsPerSymbol();
+		/* Enough data for a byte? */
+		if(numBits >= 8) {
+			numBits -= 8;
+			addData((byte) (bits >>> numBits));
+			bits &= (1 << numBits) - 1;
+			/* Padding bits of the last symbol are dropped. */
+			if(++msgCounter == msgLength)
+				endOfFrame();
+		}
+	}
+
+	/**
+	 * Process samples.
 	 * 
 	 * @param samples The samples to process.
 	 */
@@ -240,4 +625,4 @@ public class QAMReceiver extends AbstractReceiver {
 			process(samples[i]);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -28,102 +28,310 @@
  */
 package ch.fhnw.tvver;
 
-import ch.fhnw.util.FloatList;
-import com.sun.javaws.exceptions.InvalidArgumentException;
-import org.bridj.ann.Array;
-
 import java.util.Arrays;
 
 /**
- * Simple sender using amplitude modulation.
+ * Sender using quadrature amplitude modulation with a Gray coded M-QAM constellation.
+ * Data is sent in frames of at most FRAME_SIZE bytes. Each frame starts with a start 
+ * symbol (amplitude reference), a known training sequence from which the receiver 
+ * acquires symbol timing, gain and phase, and the frame length. The receiver tracks 
+ * the symbol timing within a frame.
  * 
  * @author sschubiger
  *
  */
 public class QAMSender extends AbstractSender {
-	private static final double PI2  = Math.PI * 2;
 	/* Carrier frequency. */
 	static         final float  FREQ = 4000;
+	/* Maximum number of data bytes per frame. Streaming synthesizes one frame at a time. */
+	static         final int    FRAME_SIZE = 1024;
+	/* Number of header bytes (frame length - 1). */
+	static         final int    HEADER     = 2;
+	/* Training sequence of 4-QAM symbols, two bits each, most significant first. A de Bruijn 
+	 * sequence: every pair of consecutive symbols occurs once, cyclically. */
+	static         final int    TRAINING   = 0b00_00_01_00_10_00_11_01_01_10_01_11_10_10_11_11;
+	/* Number of training symbols per frame, the training sequence repeated. */
+	static         final int    TRAINING_LENGTH = 32;
+	/* Number of repetitions of each level in the calibration preamble. */
+	static         final int    CAL_REPEAT = 8;
+
+	/* Silence after each frame in symbols. */
+	static         final int    SILENCE    = 2;
+
+	/* The constellation. */
+	protected final QAMConstellation constellation;
+
+	/* Precomputed waveforms of all byte values. */
+	private final WaveformCache cache = new WaveformCache(this::waveform);
+	/* Carrier oscillator. Symbols span one full cycle, so cached waveforms stay phase continuous. */
+	private final NCO           carrier = new NCO();
+
+	/**
+	 * Create a 4-QAM sender.
+	 */
+	public QAMSender() {
+		this(4);
+	}
+
+	/**
+	 * Create a sender.
+	 * @param order The constellation order, 4, 16, 64 or 256.
+	 */
+	public QAMSender(int order) {
+		constellation = new QAMConstellation(order);
+	}
+
+	/**
+	 * Write a constellation point. 
+	 * @param symbol The symbol bits.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the symbol.
+	 */
+	private int symbol(int symbol, float[] dst, int off) {
+		/* I/Q pair in one pass: i * cos + q * sin */
+		return carrier.iq(dst, off, symbolSize(), constellation.i(symbol), constellation.q(symbol));
+	}
+
+	/**
+	 * Write a sine with given amplitude, e.g. the start symbol.
+	 * @param amp Amplitude of the sine.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the symbol.
+	 */
+	private int symbol(float amp, float[] dst, int off) {
+		return carrier.sin(dst, off, symbolSize(), amp);
+	}
+
+	private int symbolSize() {
+		return symbolSize(samplingFrequency);
+	}
+
+	/**
+	 * Samples per symbol, one carrier cycle.
+	 * @param samplingFrequency The sampling frequency.
+	 * @return The symbol size in samples.
+	 */
+	static int symbolSize(float samplingFrequency) {
+		return (int) (samplingFrequency / FREQ);
+	}
+
+	/**
+	 * Set the memory budget of the waveform cache. Waveforms are synthesized 
+	 * on the fly if the cache does not fit into the budget.
+	 * @param bytes Maximum size of the cache in bytes.
+	 */
+	public void setCacheBudget(int bytes) {
+		cache.setBudget(bytes);
+	}
+
+	/**
+	 * Write a 4-QAM symbol, used for frame headers regardless of the constellation order.
+	 * @param msb In-phase bit.
+	 * @param lsb Quadrature bit.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the symbol.
+	 */
+	private int symbol(int msb, int lsb, float[] dst, int off) {
+		final float amp = QAMConstellation.AMP;
+		return carrier.iq(dst, off, symbolSize(), msb == 0 ? -amp : amp, lsb == 0 ? -amp : amp);
+	}
+
+	/**
+	 * In-phase or quadrature amplitude of a training symbol.
+	 * @param idx Index of the training symbol.
+	 * @param quadrature True for the quadrature amplitude.
+	 * @return The amplitude.
+	 */
+	static float training(int idx, boolean quadrature) {
+		final int bit = (TRAINING >>> (30 - 2 * (idx % 16))) & (quadrature ? 0b01 : 0b10);
+		return bit == 0 ? -QAMConstellation.AMP : QAMConstellation.AMP;
+	}
+
+	/**
+	 * Write the start symbol and the training sequence.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the training sequence.
+	 */
+	private int preamble(float[] dst, int off) {
+		off = symbol(1f, dst, off);
+		for(int i = 0; i < TRAINING_LENGTH; i++)
+			off = carrier.iq(dst, off, symbolSize(), training(i, false), training(i, true));
+		return off;
+	}
 
-    static final float[] SILENCE = new float[48];
 	/**
-	 * Create a wave with given amplitude. 
-	 * @param msb, lsb
-	 * @return Audio data for symbol.
+	 * Write a header byte as 4-QAM symbols.
+	 * @param data Header byte.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the byte.
 	 */
-	private float[] symbol(int msb, int lsb) {
-		final int symbolSz = (int) (samplingFrequency / FREQ);
-		final float[] result = new float[symbolSz];
-        if(msb == 0) msb = -1;
-        if(lsb == 0) lsb = -1;
+	private int header(int data, float[] dst, int off) {
+		for(int i = 6; i >= 0; i -= 2)
+			off = symbol((data >>> i) & 0b10, (data >>> i) & 0b1, dst, off);
+		return off;
+	}
 
-        for(int i = 0; i < result.length; i++)
-			result[i] = (float)( 0.7f * (lsb*Math.sin(PI2*i/symbolSz)
-                    + (msb*Math.cos(PI2*i/symbolSz))));
+	/**
+	 * Rebuild the waveform cache for the sampling frequency.
+	 * @return Calibration preamble: start symbol, training, calibration frame type symbol,
+	 * CAL_REPEAT symbols per constellation level with equal in-phase and quadrature
+	 * amplitude, silence.
+	 */
+	@Override
+	public float[] init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		carrier.setFrequency(samplingFrequency / symbolSize(), samplingFrequency);
+		carrier.reset();
+		/* Bytes map to whole symbols except for 64-QAM, which is synthesized on the fly. */
+		if(8 % constellation.getBitsPerSymbol() == 0)
+			cache.update(samplingFrequency, dataSymbols(1) * symbolSize());
 
+		final int numLevels = constellation.getNumLevels();
+		float[] result = new float[(2 + TRAINING_LENGTH + numLevels * CAL_REPEAT + SILENCE) * symbolSize()];
+		int off = preamble(result, 0);
+		off = symbol(1, 1, result, off);
+		for(int i = 0; i < numLevels; i++)
+			for(int j = 0; j < CAL_REPEAT; j++)
+				off = carrier.iq(result, off, symbolSize(), constellation.level(i), constellation.level(i));
 		return result;
 	}
 
-    private float[] symbol(float amp) {
-        final int symbolSz = (int) (samplingFrequency / FREQ);
-        final float[] result = new float[symbolSz];
+	/**
+	 * Write QAM symbols for a given data byte. The last symbol is padded with zero bits 
+	 * if the symbol size does not divide eight.
+	 * @param data Data byte to encode.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the byte.
+	 */
+	private int waveform(byte data, float[] dst, int off) {
+		final int bits = constellation.getBitsPerSymbol();
+		/* Send data bits, most significant first. */
+		for(int i = 8 - bits; i > -bits; i -= bits)
+			off = symbol((i < 0 ? data << -i : data >>> i) & (constellation.getOrder() - 1), dst, off);
+		return off;
+	}
+
+	/**
+	 * Write QAM symbols for data bytes. Bytes are packed into symbols most significant 
+	 * bit first, the last symbol is padded with zero bits.
+	 * @param src Data to encode.
+	 * @param off Offset of the first byte in src.
+	 * @param len Number of bytes.
+	 * @param dst Destination for the audio data.
+	 * @param dstOff Offset into dst.
+	 * @return Offset after the data.
+	 */
+	private int data(byte[] src, int off, int len, float[] dst, int dstOff) {
+		final int bits = constellation.getBitsPerSymbol();
+		if(8 % bits == 0) {
+			for(int i = off; i < off + len; i++)
+				dstOff = cache.synthesize(src[i], dst, dstOff);
+			return dstOff;
+		}
+		final int mask = constellation.getOrder() - 1;
+		int acc  = 0;
+		int numBits = 0;
+		for(int i = off; i < off + len; i++) {
+			acc = (acc << 8) | (src[i] & 0xFF);
+			numBits += 8;
+			while(numBits >= bits) {
+				numBits -= bits;
+				dstOff = symbol((acc >>> numBits) & mask, dst, dstOff);
+			}
+			acc &= (1 << numBits) - 1;
+		}
+		if(numBits > 0)
+			dstOff = symbol((acc << (bits - numBits)) & mask, dst, dstOff);
+		return dstOff;
+	}
 
-        for(int i = 0; i < result.length; i++)
-            result[i] = (float)(Math.sin((PI2 * i) / symbolSz)) * amp;
+	/**
+	 * @param len Number of data bytes.
+	 * @return Number of symbols required for the data bytes.
+	 */
+	private int dataSymbols(int len) {
+		final int bits = constellation.getBitsPerSymbol();
+		return (8 * len + bits - 1) / bits;
+	}
 
-        return result;
-    }
+	/**
+	 * Write one frame: start symbol, training, data frame type symbol, length, data and silence.
+	 * Frame type and length are sent as 4-QAM symbols.
+	 * @param src Data to encode.
+	 * @param off Offset of the first byte in src.
+	 * @param len Number of bytes in this frame, at most FRAME_SIZE.
+	 * @param dst Destination for the audio data.
+	 * @param dstOff Offset into dst.
+	 * @return Offset after the frame.
+	 */
+	private int synthesizeFrame(byte[] src, int off, int len, float[] dst, int dstOff) {
+		dstOff = preamble(dst, dstOff);
+		dstOff = symbol(0, 0, dst, dstOff);
+		for(int i = HEADER - 1; i >= 0; i--)
+			dstOff = header((len - 1) >>> (8 * i) & 0xFF, dst, dstOff);
+		dstOff = data(src, off, len, dst, dstOff);
+		Arrays.fill(dst, dstOff, dstOff + SILENCE * symbolSize(), 0f);
+		return dstOff + SILENCE * symbolSize();
+	}
 
 	/**
-	 * Create amplitude modulated wave for a given data byte.
+	 * Create QAM symbols for a given data byte.
 	 * @param data Data byte to encode.
 	 */
 	@Override
 	public float[] synthesize(byte data) {
-		FloatList result = new FloatList();
-        /* Send data bits. */
-		for(int i = 6; i >= 0; i-=2) {
-			int msb = 0, lsb = 0;
-            lsb = ((data>>>i) & 0b1) == 0b1 ? 1 : 0;
-            msb = ((data>>>i) & 0b10) == 0b10 ? 1 : 0;
-            result.addAll(symbol(msb, lsb));
-		}
-		return result.toArray();
+		float[] result = new float[dataSymbols(1) * symbolSize()];
+		cache.synthesize(data, result, 0);
+		return result;
+	}
+
+	/**
+	 * Frames are synthesized independently. Each frame acquires its own timing, thus the 
+	 * frame size only trades the training overhead against the samples held per chunk.
+	 */
+	@Override
+	public int getChunkSize() {
+		return FRAME_SIZE;
+	}
+
+	@Override
+	public int getNumSamples(byte[] data, int off, int len) {
+		int rest = len % FRAME_SIZE;
+		return (len / FRAME_SIZE) * frameSize(FRAME_SIZE) + (rest == 0 ? 0 : frameSize(rest));
+	}
+
+	/**
+	 * Number of samples of a single frame.
+	 * @param len Number of data bytes in the frame.
+	 * @return Samples of start symbol, training, frame type, length, data and silence.
+	 */
+	private int frameSize(int len) {
+		return (2 + TRAINING_LENGTH + 4 * HEADER + dataSymbols(len) + SILENCE) * symbolSize();
 	}
 
 	@Override
-	public float[] synthesize(byte[] data) {
-        FloatList result = new FloatList();
-        if(data.length == 0) throw new IllegalArgumentException("data.length must not be null");
-		int nFrames = data.length/256;
-        if(data.length%256 != 0) nFrames++;
-        byte[][] split = new byte[nFrames][];
-        System.out.println(nFrames);
-        for (int i = 0; i < split.length; i++) {
-            if(i+1 == nFrames){
-                split[i] = Arrays.copyOfRange(data, 256*i, data.length);
-                System.out.println(split[i].length);
-            } else {
-                split[i] = Arrays.copyOfRange(data, 256 * i, 256 * (i + 1));
-                System.out.println(split[i].length);
-            }
-        }
-        for (byte[] frame : split) {
-            result.addAll(synthesizeFrame(frame));
-        }
-        return result.toArray();
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		int pos = dstOff;
+		for(int i = 0; i < len; i += FRAME_SIZE)
+			pos = synthesizeFrame(src, off + i, Math.min(FRAME_SIZE, len - i), dst, pos);
+		return pos - dstOff;
 	}
 
+	/**
+	 * Create a single frame regardless of FRAME_SIZE.
+	 * @param data Data of the frame, at most 2^(8*HEADER) bytes.
+	 * @return The audio data of the frame.
+	 */
 	public float[] synthesizeFrame(byte[] data) {
-        FloatList result = new FloatList();
-        result.addAll(symbol(1f));
-        result.addAll(synthesize((byte)(data.length-1 & 0xFF)));
-        System.out.println(data.length);
-        for(int i = 0; i < data.length; i++) {
-            result.addAll(synthesize(data[i]));
-        }
-        result.addAll(SILENCE);
-        return result.toArray();
-    }
+		float[] result = new float[frameSize(data.length)];
+		synthesizeFrame(data, 0, data.length, result, 0);
+		return result;
+	}
 
 }
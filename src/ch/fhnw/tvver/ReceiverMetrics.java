@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentation of a receiver: samples and frames processed, sync acquisitions and losses,
+ * symbols decoded, bytes emitted, a histogram of the time per process() call and the 
+ * estimated SNR at the last sync. Counters are lock-free and may be read from any thread
+ * while the receiver runs, either with snapshot() or over JMX after register(). 
+ * Counting happens per frame, symbol and byte, never per sample, and is skipped entirely
+ * while disabled. Metrics are disabled by default, the system property "tvver.metrics"
+ * enables them for all receivers.
+ * 
+ * @author agent
+ *
+ */
+public final class ReceiverMetrics implements IReceiverMetricsMXBean {
+	/* JMX domain and type. */
+	private static final String DOMAIN  = "ch.fhnw.tvver:type=Receiver,name=";
+	/* Histogram buckets, bucket b counts times in [2^(b-1), 2^b) ns. */
+	private static final int    BUCKETS = 64;
+
+	private volatile boolean       enabled = Boolean.getBoolean("tvver.metrics");
+	private final LongAdder        samples = new LongAdder();
+	private final LongAdder        frames  = new LongAdder();
+	private final LongAdder        syncs   = new LongAdder();
+	private final LongAdder        losses  = new LongAdder();
+	private final LongAdder        symbols = new LongAdder();
+	private final LongAdder        bytes   = new LongAdder();
+	private final LongAdder        time    = new LongAdder();
+	private final LongAccumulator  maxTime = new LongAccumulator(Math::max, 0);
+	private final AtomicLongArray  times   = new AtomicLongArray(BUCKETS);
+	/* SNR in dB at the last sync, NaN if not measured. */
+	private volatile float         snr     = Float.NaN;
+	/* Name registered with JMX or null. */
+	private ObjectName             name;
+
+	/**
+	 * Values of all metrics at one point in time.
+	 */
+	public static final class Snapshot {
+		public final long   samples;
+		public final long   frames;
+		public final long   syncs;
+		public final long   syncLosses;
+		public final long   symbols;
+		public final long   bytes;
+		/** Time per process() call in ns: mean, upper bounds of the median and 99th percentile, maximum. */
+		public final double processTimeMean;
+		public final long   processTimeP50;
+		public final long   processTimeP99;
+		public final long   processTimeMax;
+		/** Estimated SNR in dB at the last sync, NaN if not measured. */
+		public final float  snr;
+
+		Snapshot(ReceiverMetrics metrics) {
+			samples         = metrics.getSamples();
+			frames          = metrics.getFrames();
+			syncs           = metrics.getSyncs();
+			syncLosses      = metrics.getSyncLosses();
+			symbols         = metrics.getSymbols();
+			bytes           = metrics.getBytes();
+			processTimeMean = metrics.getProcessTimeMean();
+			processTimeP50  = metrics.getProcessTimeP50();
+			processTimeP99  = metrics.getProcessTimeP99();
+			processTimeMax  = metrics.getProcessTimeMax();
+			snr             = metrics.getSNR();
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "samples=%d frames=%d syncs=%d losses=%d symbols=%d bytes=%d time=%.0f/%d/%d/%dns snr=%.1fdB", 
+					samples, frames, syncs, syncLosses, symbols, bytes, processTimeMean, processTimeP50, processTimeP99, processTimeMax, snr);
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Count one process() call.
+	 * @param numSamples Number of samples of the frame.
+	 * @param nanos Processing time.
+	 */
+	void frame(int numSamples, long nanos) {
+		samples.add(numSamples);
+		frames.increment();
+		time.add(nanos);
+		maxTime.accumulate(nanos);
+		times.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0))));
+	}
+
+	/**
+	 * Count a sync acquisition.
+	 * @param snr Estimated SNR in dB, NaN if unknown.
+	 */
+	void sync(float snr) {
+		syncs.increment();
+		if(!(Float.isNaN(snr)))
+			this.snr = snr;
+	}
+
+	void syncLost() {
+		losses.increment();
+	}
+
+	void symbol() {
+		symbols.increment();
+	}
+
+	void bytes(int n) {
+		bytes.add(n);
+	}
+
+	@Override
+	public long getSamples() {
+		return samples.sum();
+	}
+
+	@Override
+	public long getFrames() {
+		return frames.sum();
+	}
+
+	@Override
+	public long getSyncs() {
+		return syncs.sum();
+	}
+
+	@Override
+	public long getSyncLosses() {
+		return losses.sum();
+	}
+
+	@Override
+	public long getSymbols() {
+		return symbols.sum();
+	}
+
+	@Override
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	@Override
+	public double getProcessTimeMean() {
+		final long n = frames.sum();
+		return n == 0 ? 0 : time.sum() / (double)n;
+	}
+
+	/**
+	 * @param p Fraction of the frames, 0..1.
+	 * @return Upper bound of the time within which p of the frames were processed, in ns.
+	 */
+	private long percentile(double p) {
+		long total = 0;
+		for(int b = 0; b < BUCKETS; b++)
+			total += times.get(b);
+		long count = 0;
+		for(int b = 0; b < BUCKETS; b++) {
+			count += times.get(b);
+			if(count > 0 && count >= p * total)
+				return b == BUCKETS - 1 ? Long.MAX_VALUE : (1L << b) - 1;
+		}
+		return 0;
+	}
+
+	@Override
+	public long getProcessTimeP50() {
+		return percentile(0.5);
+	}
+
+	@Override
+	public long getProcessTimeP99() {
+		return percentile(0.99);
+	}
+
+	@Override
+	public long getProcessTimeMax() {
+		return maxTime.get();
+	}
+
+	@Override
+	public float getSNR() {
+		return snr;
+	}
+
+	@Override
+	public void reset() {
+		samples.reset();
+		frames.reset();
+		syncs.reset();
+		losses.reset();
+		symbols.reset();
+		bytes.reset();
+		time.reset();
+		maxTime.reset();
+		for(int b = 0; b < BUCKETS; b++)
+			times.set(b, 0);
+		snr = Float.NaN;
+	}
+
+	/**
+	 * @return The current values of all metrics.
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	/**
+	 * Register with the platform MBean server as ch.fhnw.tvver:type=Receiver,name=&lt;name&gt;.
+	 * @param name The receiver name, e.g. the modem name.
+	 * @throws JMException If the name is invalid or already registered.
+	 */
+	public synchronized void register(String name) throws JMException {
+		unregister();
+		ObjectName objectName = new ObjectName(DOMAIN + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		this.name = objectName;
+	}
+
+	/**
+	 * Remove the registration of register(), if any.
+	 * @throws JMException If the MBean server fails.
+	 */
+	public synchronized void unregister() throws JMException {
+		if(name == null) return;
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		name = null;
+	}
+}
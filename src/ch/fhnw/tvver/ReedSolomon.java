@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Systematic Reed-Solomon code over GF(256) with byte interleaving. Each block holds depth 
+ * code words of n bytes with n - k parity bytes each, correcting up to (n - k) / 2 byte errors
+ * per code word. Byte j of code word c is sent at position j * depth + c, thus bursts of up 
+ * to depth * (n - k) / 2 bytes are corrected. The data bytes are sent unchanged in front of
+ * the parity bytes.
+ * 
+ * Decoding computes the syndromes, finds the error locator with Berlekamp-Massey, the 
+ * error positions with a Chien search and the error values with the Forney algorithm.
+ * 
+ * @author agent
+ *
+ */
+public final class ReedSolomon extends FEC {
+	/* Primitive polynomial x^8 + x^4 + x^3 + x^2 + 1. */
+	private static final int   PRIMITIVE = 0x11D;
+	/* Defaults: RS(255,223) interleaved to depth 4. */
+	private static final int   N         = 255;
+	private static final int   K         = 223;
+	private static final int   DEPTH     = 4;
+
+	/* Powers of alpha (twice, avoids the modulo in mul()) and logarithms. */
+	private static final int[] EXP = new int[512];
+	private static final int[] LOG = new int[256];
+
+	static {
+		int x = 1;
+		for(int i = 0; i < 255; i++) {
+			EXP[i] = x;
+			LOG[x] = i;
+			x <<= 1;
+			if(x > 0xFF) x ^= PRIMITIVE;
+		}
+		for(int i = 255; i < EXP.length; i++)
+			EXP[i] = EXP[i - 255];
+	}
+
+	private final int   n;
+	private final int   k;
+	private final int   nsym;
+	private final int   depth;
+	/* Generator polynomial, highest degree first, gen[0] = 1. */
+	private final int[] gen;
+	/* Decoder state: one code word, syndromes, locator polynomials, evaluator, error positions. */
+	private final int[] word;
+	private final int[] synd;
+	private final int[] lambda;
+	private final int[] prev;
+	private final int[] tmp;
+	private final int[] omega;
+	private final int[] errPos;
+
+	/**
+	 * Create a RS(255,223) code interleaved to depth 4.
+	 */
+	public ReedSolomon() {
+		this(N, K, DEPTH);
+	}
+
+	/**
+	 * Create a code.
+	 * @param n Code word length in bytes, at most 255. Shorter code words are shortened codes.
+	 * @param k Data bytes per code word, n - k must be even.
+	 * @param depth Number of interleaved code words per block.
+	 */
+	public ReedSolomon(int n, int k, int depth) {
+		if(n > N || k <= 0 || k >= n || ((n - k) & 1) != 0 || depth <= 0)
+			throw new IllegalArgumentException("Invalid RS(" + n + "," + k + ")x" + depth);
+		this.n     = n;
+		this.k     = k;
+		this.nsym  = n - k;
+		this.depth = depth;
+
+		/* gen(x) = (x - a^0)(x - a^1)...(x - a^(nsym-1)) */
+		gen = new int[nsym + 1];
+		gen[0] = 1;
+		for(int i = 0; i < nsym; i++) {
+			for(int j = i + 1; j > 0; j--)
+				gen[j] ^= mul(gen[j - 1], EXP[i]);
+		}
+
+		word   = new int[n];
+		synd   = new int[nsym];
+		lambda = new int[nsym + 1];
+		prev   = new int[nsym + 1];
+		tmp    = new int[nsym + 1];
+		omega  = new int[nsym];
+		errPos = new int[nsym / 2];
+	}
+
+	private static int mul(int a, int b) {
+		return a == 0 || b == 0 ? 0 : EXP[LOG[a] + LOG[b]];
+	}
+
+	private static int div(int a, int b) {
+		return a == 0 ? 0 : EXP[LOG[a] + 255 - LOG[b]];
+	}
+
+	@Override
+	public int getDataSize() {
+		return k * depth;
+	}
+
+	@Override
+	public int getCodeSize() {
+		return n * depth;
+	}
+
+	@Override
+	public void encode(byte[] src, int srcOff, byte[] dst, int dstOff) {
+		for(int c = 0; c < depth; c++) {
+			/* Remainder of data(x) * x^nsym / gen(x), computed in word[0..nsym-1]. */
+			for(int i = 0; i < nsym; i++)
+				word[i] = 0;
+			for(int j = 0; j < k; j++) {
+				final int b        = src[srcOff + j * depth + c] & 0xFF;
+				dst[dstOff + j * depth + c] = (byte)b;
+				final int feedback = b ^ word[0];
+				for(int i = 0; i < nsym - 1; i++)
+					word[i] = word[i + 1] ^ mul(feedback, gen[i + 1]);
+				word[nsym - 1] = mul(feedback, gen[nsym]);
+			}
+			for(int i = 0; i < nsym; i++)
+				dst[dstOff + (k + i) * depth + c] = (byte)word[i];
+		}
+	}
+
+	@Override
+	public int decode(byte[] src, int srcOff, byte[] dst, int dstOff) {
+		int result = 0;
+		for(int c = 0; c < depth; c++) {
+			for(int j = 0; j < n; j++)
+				word[j] = src[srcOff + j * depth + c] & 0xFF;
+			final int corrected = correct();
+			if(corrected < 0 || result < 0) result = -1;
+			else                            result += corrected;
+			for(int j = 0; j < k; j++)
+				dst[dstOff + j * depth + c] = (byte)word[j];
+		}
+		return result;
+	}
+
+	/**
+	 * Correct the code word in word[].
+	 * @return Number of corrected bytes or -1 if the code word is not correctable.
+	 */
+	private int correct() {
+		/* Syndromes S_i = word(a^i), word[0] is the coefficient of x^(n-1). */
+		boolean clean = true;
+		for(int i = 0; i < nsym; i++) {
+			int s = 0;
+			for(int j = 0; j < n; j++)
+				s = mul(s, EXP[i]) ^ word[j];
+			synd[i] = s;
+			clean  &= s == 0;
+		}
+		if(clean) return 0;
+
+		/* Berlekamp-Massey: error locator lambda(x), lowest degree first. */
+		for(int i = 0; i <= nsym; i++) {
+			lambda[i] = 0;
+			prev[i]   = 0;
+		}
+		lambda[0] = 1;
+		prev[0]   = 1;
+		int numErrors = 0;
+		int shift     = 1;
+		int prevDelta = 1;
+		for(int r = 0; r < nsym; r++) {
+			int delta = synd[r];
+			for(int i = 1; i <= numErrors; i++)
+				delta ^= mul(lambda[i], synd[r - i]);
+			if(delta == 0) {
+				shift++;
+				continue;
+			}
+			final int scale = div(delta, prevDelta);
+			if(2 * numErrors <= r) {
+				System.arraycopy(lambda, 0, tmp, 0, nsym + 1);
+				for(int i = shift; i <= nsym; i++)
+					lambda[i] ^= mul(scale, prev[i - shift]);
+				System.arraycopy(tmp, 0, prev, 0, nsym + 1);
+				numErrors = r + 1 - numErrors;
+				prevDelta = delta;
+				shift     = 1;
+			} else {
+				for(int i = shift; i <= nsym; i++)
+					lambda[i] ^= mul(scale, prev[i - shift]);
+				shift++;
+			}
+		}
+		if(numErrors > nsym / 2) return -1;
+
+		/* Chien search: position j is in error if lambda(a^-(n-1-j)) = 0. */
+		int found = 0;
+		for(int j = 0; j < n; j++) {
+			final int xinv = EXP[(255 - (n - 1 - j)) % 255];
+			int v = 0;
+			for(int i = numErrors; i >= 0; i--)
+				v = mul(v, xinv) ^ lambda[i];
+			if(v == 0) {
+				if(found == numErrors) return -1;
+				errPos[found++] = j;
+			}
+		}
+		if(found != numErrors) return -1;
+
+		/* Forney: omega(x) = S(x) * lambda(x) mod x^nsym, e = X * omega(X^-1) / lambda'(X^-1). */
+		for(int i = 0; i < nsym; i++) {
+			int v = 0;
+			for(int j = 0; j <= Math.min(i, numErrors); j++)
+				v ^= mul(synd[i - j], lambda[j]);
+			omega[i] = v;
+		}
+		for(int e = 0; e < found; e++) {
+			final int p    = n - 1 - errPos[e];
+			final int x    = EXP[p];
+			final int xinv = EXP[(255 - p) % 255];
+			int num = 0;
+			for(int i = nsym - 1; i >= 0; i--)
+				num = mul(num, xinv) ^ omega[i];
+			/* Formal derivative: only the odd coefficients remain. */
+			int den = 0;
+			for(int i = numErrors - ((numErrors & 1) ^ 1); i >= 1; i -= 2)
+				den ^= mul(lambda[i], EXP[(LOG[xinv] * (i - 1)) % 255]);
+			if(den == 0) return -1;
+			word[errPos[e]] ^= mul(x, div(num, den));
+		}
+		return found;
+	}
+}
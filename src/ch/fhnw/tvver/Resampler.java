@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Streaming sample rate converter for arbitrary ratios. Each output sample is interpolated
+ * with a Blackman windowed sinc, which is low pass filtered at 90% of the lower Nyquist 
+ * frequency. The filter is tabulated for PHASES fractional positions and interpolated 
+ * linearly in between, thus each output sample takes two dot products on the DSP kernels.
+ * Output sample k corresponds to input sample k * in / out, the output lags the input by 
+ * the half filter length.
+ * 
+ * @author agent
+ *
+ */
+public final class Resampler {
+	/* Zero crossings of the sinc on each side at the cut-off frequency. */
+	private static final int    ZEROS  = 16;
+	/* Number of tabulated fractional positions. */
+	private static final int    PHASES = 128;
+	/* Cut-off relative to the lower Nyquist frequency. */
+	private static final double CUTOFF = 0.9;
+
+	/* Input samples per output sample. */
+	private final double  step;
+	/* Taps on each side of the interpolated position. */
+	private final int     half;
+	/* Filter table, PHASES + 1 rows of 2 * half taps. */
+	private final float[] table;
+	/* Input samples not consumed yet and their number. */
+	private float[]       buffer;
+	private int           count;
+	/* Position of the next output sample in buffer[]. */
+	private double        time;
+
+	/**
+	 * Create a converter.
+	 * @param inputFrequency Sampling frequency of the input.
+	 * @param outputFrequency Sampling frequency of the output.
+	 */
+	public Resampler(float inputFrequency, float outputFrequency) {
+		step  = (double)inputFrequency / outputFrequency;
+		final double cutoff = CUTOFF * Math.min(1, 1 / step);
+		half  = (int)Math.ceil(ZEROS / cutoff);
+		table = new float[(PHASES + 1) * 2 * half];
+		for(int p = 0; p <= PHASES; p++) {
+			for(int j = 0; j < 2 * half; j++) {
+				/* Distance of tap j from the interpolated position. */
+				final double x = j - half + 1 - p / (double)PHASES;
+				final double w = 0.42 + 0.5 * Math.cos(Math.PI * x / half) + 0.08 * Math.cos(2 * Math.PI * x / half);
+				final double s = x == 0 ? 1 : Math.sin(Math.PI * cutoff * x) / (Math.PI * cutoff * x);
+				table[p * 2 * half + j] = Math.abs(x) >= half ? 0 : (float)(cutoff * s * w);
+			}
+		}
+		buffer = new float[4 * half];
+		reset();
+	}
+
+	/**
+	 * Forget all input.
+	 */
+	public void reset() {
+		/* Zeros before the first input sample. */
+		count = half;
+		for(int i = 0; i < count; i++)
+			buffer[i] = 0;
+		time  = half;
+	}
+
+	/**
+	 * @return Number of input samples required after an input sample until the output at its position is computed.
+	 */
+	public int getLatency() {
+		return half;
+	}
+
+	/**
+	 * @param len Number of input samples.
+	 * @return Upper limit of the number of output samples of process() for len input samples.
+	 */
+	public int getMaxOutput(int len) {
+		return (int)Math.ceil((count + len - time) / step) + 1;
+	}
+
+	/**
+	 * Convert a block of samples. The state is kept between calls.
+	 * @param src Input samples.
+	 * @param off Offset into src.
+	 * @param len Number of input samples.
+	 * @param dst Destination, must hold getMaxOutput(len) samples after dstOff.
+	 * @param dstOff Offset into dst.
+	 * @return Number of output samples.
+	 */
+	public int process(float[] src, int off, int len, float[] dst, int dstOff) {
+		if(count + len > buffer.length) {
+			float[] tmp = new float[2 * (count + len)];
+			System.arraycopy(buffer, 0, tmp, 0, count);
+			buffer = tmp;
+		}
+		System.arraycopy(src, off, buffer, count, len);
+		count += len;
+
+		final int taps   = 2 * half;
+		int       result = 0;
+		for(;;) {
+			final int i = (int)time;
+			if(i + half >= count) break;
+			final double phase = (time - i) * PHASES;
+			final int    p     = (int)phase;
+			final float  f     = (float)(phase - p);
+			final int    row0  = p * taps;
+			final int    row1  = row0 + taps;
+			final int    start = i - half + 1;
+			final float v0 = DSP.INSTANCE.dot(buffer, start, table, row0, taps);
+			final float v1 = DSP.INSTANCE.dot(buffer, start, table, row1, taps);
+			dst[dstOff + result++] = v0 + (v1 - v0) * f;
+			time += step;
+		}
+
+		/* Keep the input needed for the next output sample. */
+		final int consumed = Math.max(0, Math.min(count, (int)time - half + 1));
+		System.arraycopy(buffer, consumed, buffer, 0, count - consumed);
+		count -= consumed;
+		time  -= consumed;
+		return result;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.nio.ByteBuffer;
+
+import ch.fhnw.ether.audio.IAudioRenderTarget;
+import ch.fhnw.ether.media.AbstractRenderCommand;
+
+/**
+ * Resampling front end: the wrapped mono receiver decodes at its own sampling frequency, 
+ * independent of the channel's, e.g. at 48 kHz behind a 192 kHz channel. Modems derive
+ * their symbol geometry from the rate passed to init(), thus the sender runs at the same
+ * rate behind a ResamplingSender. The resampled audio is passed to the wrapped receiver 
+ * in blocks of constant size.
+ * 
+ * @author agent
+ *
+ */
+public class ResamplingReceiver extends AbstractReceiver {
+	private final AbstractReceiver receiver;
+	/* Sampling frequency of the wrapped receiver. */
+	private final float            rate;
+	private Resampler              resampler;
+	/* Resampled audio not passed on yet and its number of samples. */
+	private float[]                buffer = new float[0];
+	private int                    count;
+	/* Block passed to the wrapped receiver, sized by the first frame. */
+	private float[]                block;
+	/* Bytes drained from the wrapped receiver. */
+	private final ByteBuffer       data = ByteBuffer.allocate(256);
+
+	/**
+	 * Create a receiver.
+	 * @param receiver The receiver decoding the resampled audio.
+	 * @param rate Sampling frequency of the receiver.
+	 */
+	public ResamplingReceiver(AbstractReceiver receiver, float rate) {
+		this.receiver = receiver;
+		this.rate     = rate;
+	}
+
+	@Override
+	public void init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		receiver.init(rate);
+		getCmds().clear();
+		for(AbstractRenderCommand<IAudioRenderTarget,?> cmd : receiver.getCmds())
+			insert(cmd);
+		resampler = new Resampler(samplingFrequency, rate);
+		count     = 0;
+		block     = null;
+	}
+
+	@Override
+	protected void process(float[] samples) {
+		if(block == null)
+			block = new float[Math.max(1, (int)(samples.length * rate / samplingFrequency))];
+		final int max = count + resampler.getMaxOutput(samples.length);
+		if(buffer.length < max) {
+			float[] tmp = new float[max];
+			System.arraycopy(buffer, 0, tmp, 0, count);
+			buffer = tmp;
+		}
+		count += resampler.process(samples, 0, samples.length, buffer, count);
+
+		int pos = 0;
+		for(; pos + block.length <= count; pos += block.length) {
+			System.arraycopy(buffer, pos, block, 0, block.length);
+			receiver.receive(block);
+		}
+		System.arraycopy(buffer, pos, buffer, 0, count - pos);
+		count -= pos;
+		while(receiver.drainData(data) > 0) {
+			data.flip();
+			while(data.hasRemaining())
+				addData(data.get());
+			data.clear();
+		}
+	}
+}
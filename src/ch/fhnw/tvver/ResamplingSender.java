@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Sender synthesizing at its own sampling frequency, converted to the channel's by a Resampler.
+ * Paired with a ResamplingReceiver at the same rate, the modem sees the same symbol geometry
+ * on both sides regardless of the channel's sampling frequency. Every chunk of the wrapped 
+ * sender is converted on its own, thus streamed chunks produce the same samples as a 
+ * transmission at once.
+ * 
+ * The price is a seam at each chunk boundary: the filter sees zeros beyond the chunk, 
+ * thus the last and first few samples around the boundary are attenuated, and each chunk
+ * is rounded up to whole output samples, a timing step of less than one sample. Frames of
+ * QAMSender and OFDMSender end in silence and are not affected. Contiguous chunks, e.g.
+ * of SimpleAMSender, must tolerate the seam.
+ * 
+ * @author agent
+ *
+ */
+public class ResamplingSender extends AbstractSender {
+	private final AbstractSender sender;
+	/* Sampling frequency of the wrapped sender. */
+	private final float          rate;
+	private Resampler            resampler;
+	/* Samples of one chunk at rate, after conversion and zeros flushing the filter. */
+	private float[]              samples   = new float[0];
+	private float[]              converted = new float[0];
+	private float[]              zeros;
+
+	/**
+	 * Create a sender.
+	 * @param sender The mono sender synthesizing at rate.
+	 * @param rate Sampling frequency of the sender.
+	 */
+	public ResamplingSender(AbstractSender sender, float rate) {
+		if(sender.getNumChannels() != 1)
+			throw new IllegalArgumentException("Only mono senders can be resampled");
+		this.sender = sender;
+		this.rate   = rate;
+	}
+
+	@Override
+	public float[] init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		resampler = new Resampler(rate, samplingFrequency);
+		zeros     = new float[resampler.getLatency() + 1];
+		final float[] preamble = sender.init(rate);
+		final float[] result   = new float[length(preamble.length)];
+		convert(preamble, preamble.length, result, 0);
+		return result;
+	}
+
+	/**
+	 * @param len Number of samples at rate.
+	 * @return Number of samples at the channel's sampling frequency for the same duration.
+	 */
+	private int length(int len) {
+		return (int)Math.ceil(len * (double)samplingFrequency / rate);
+	}
+
+	/**
+	 * Convert one block of samples, independent of previous blocks.
+	 * @return Number of samples written to dst.
+	 */
+	private int convert(float[] src, int len, float[] dst, int dstOff) {
+		final int result = length(len);
+		if(result == 0) return 0;
+		resampler.reset();
+		final int max = resampler.getMaxOutput(len + zeros.length);
+		if(converted.length < max)
+			converted = new float[max];
+		final int n = resampler.process(src, 0, len, converted, 0);
+		resampler.process(zeros, 0, zeros.length, converted, n);
+		System.arraycopy(converted, 0, dst, dstOff, result);
+		return result;
+	}
+
+	@Override
+	public int getNumSamples(byte[] data, int off, int len) {
+		int result = 0;
+		for(int pos = off; pos < off + len; pos += getChunkSize())
+			result += length(sender.getNumSamples(data, pos, Math.min(getChunkSize(), off + len - pos)));
+		return result;
+	}
+
+	@Override
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		int result = 0;
+		for(int pos = off; pos < off + len; pos += getChunkSize()) {
+			final int n  = Math.min(getChunkSize(), off + len - pos);
+			final int sz = sender.getNumSamples(src, pos, n);
+			if(samples.length < sz)
+				samples = new float[sz];
+			sender.synthesizeInto(src, pos, n, samples, 0);
+			result += convert(samples, sz, dst, dstOff + result);
+		}
+		return result;
+	}
+
+	@Override
+	public int getChunkSize() {
+		return sender.getChunkSize();
+	}
+}
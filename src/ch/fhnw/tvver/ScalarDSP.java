@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Plain Java DSP kernels, the reference for and fallback of VectorDSP.
+ * 
+ * @author agent
+ *
+ */
+public final class ScalarDSP extends DSP {
+	@Override
+	public String getName() {
+		return "scalar";
+	}
+
+	@Override
+	public float energy(float[] x, int off, int len) {
+		float result = 0;
+		for(int i = off; i < off + len; i++)
+			result += x[i] * x[i];
+		return result;
+	}
+
+	@Override
+	public float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+		float result = 0;
+		for(int i = 0; i < len; i++)
+			result += a[aOff + i] * b[bOff + i];
+		return result;
+	}
+
+	@Override
+	public void mix(float[] x, int off, float[] cos, float[] sin, int len, float[] iq) {
+		float i = 0;
+		float q = 0;
+		for(int j = 0; j < len; j++) {
+			i += x[off + j] * cos[j];
+			q += x[off + j] * sin[j];
+		}
+		iq[0] = i;
+		iq[1] = q;
+	}
+
+	@Override
+	public void goertzel(float[] x, int off, int len, float[] coeff, float[] s1, float[] s2) {
+		for(int k = 0; k < coeff.length; k++) {
+			final float c = coeff[k];
+			float q1 = s1[k];
+			float q2 = s2[k];
+			for(int i = off; i < off + len; i++) {
+				final float q0 = c * q1 - q2 + x[i];
+				q2 = q1;
+				q1 = q0;
+			}
+			s1[k] = q1;
+			s2[k] = q2;
+		}
+	}
+}
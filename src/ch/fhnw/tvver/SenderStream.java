@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import ch.fhnw.ether.audio.IAudioRenderTarget;
+import ch.fhnw.ether.media.AbstractRenderCommand;
+import ch.fhnw.ether.media.RenderCommandException;
+import ch.fhnw.ether.media.Stateless;
+
+/**
+ * Pull-based audio source for a sender. Data is read from a channel in chunks of 
+ * AbstractSender.getChunkSize() bytes and synthesized on demand, thus memory use is 
+ * bounded by one chunk regardless of the amount of data. Optional silence and the init 
+ * sequence of the sender are delivered first. The audio samples are the same as init() 
+ * followed by synthesize() of all data.
+ * 
+ * In an audio pipeline the stream replaces the samples of each frame with its next samples, 
+ * frame by frame, and with silence after the end of data. It follows a source which 
+ * delivers the frames, e.g. an ArrayAudioSource playing one silent frame repeatedly.
+ * 
+ * @author agent
+ *
+ */
+public final class SenderStream extends AbstractRenderCommand<IAudioRenderTarget,Stateless<IAudioRenderTarget>> {
+	private final AbstractSender      sender;
+	private final ReadableByteChannel in;
+	/* Data of the current chunk. */
+	private final ByteBuffer          data;
+	/* Samples of the current chunk, position and number of valid samples. */
+	private float[]                   samples;
+	private int                       pos;
+	private int                       size;
+	/* End of data reached. */
+	private boolean                   eof;
+
+	/**
+	 * Create a stream. Initializes the sender.
+	 * @param sender The sender.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param in The data to send.
+	 */
+	public SenderStream(AbstractSender sender, float samplingFrequency, ReadableByteChannel in) {
+		this(sender, samplingFrequency, in, 0);
+	}
+
+	/**
+	 * Create a stream. Initializes the sender.
+	 * @param sender The sender.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param in The data to send.
+	 * @param silence Number of samples of silence in front of the init sequence, channels interleaved.
+	 */
+	public SenderStream(AbstractSender sender, float samplingFrequency, ReadableByteChannel in, int silence) {
+		final float[] init = sender.init(samplingFrequency);
+		this.sender  = sender;
+		this.in      = in;
+		this.samples = new float[silence + init.length];
+		this.size    = samples.length;
+		this.data    = ByteBuffer.allocate(sender.getChunkSize());
+		System.arraycopy(init, 0, samples, silence, init.length);
+	}
+
+	/**
+	 * Create a stream. Initializes the sender.
+	 * @param sender The sender.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param in The data to send.
+	 */
+	public SenderStream(AbstractSender sender, float samplingFrequency, InputStream in) {
+		this(sender, samplingFrequency, Channels.newChannel(in));
+	}
+
+	/**
+	 * Read and synthesize the next chunk. Blocks until the chunk is complete or the end of 
+	 * data is reached, because a partial chunk would change the framing.
+	 * @return False at the end of data.
+	 */
+	private boolean next() throws IOException {
+		data.clear();
+		while(!eof && data.hasRemaining())
+			eof = in.read(data) < 0;
+		if(data.position() == 0)
+			return false;
+		final int len = data.position();
+		size = sender.getNumSamples(data.array(), 0, len);
+		if(samples.length < size)
+			samples = new float[size];
+		sender.synthesizeInto(data.array(), 0, len, samples, 0);
+		pos = 0;
+		return true;
+	}
+
+	/**
+	 * Read audio samples.
+	 * @param dst The destination for the samples.
+	 * @param off Offset into dst.
+	 * @param len Maximum number of samples to read.
+	 * @return Number of samples read, less than len only at the end of data, -1 if no samples are left.
+	 * @throws IOException If reading data fails.
+	 */
+	public int read(float[] dst, int off, int len) throws IOException {
+		int result = 0;
+		while(result < len) {
+			if(pos == size && !next())
+				break;
+			final int n = Math.min(len - result, size - pos);
+			System.arraycopy(samples, pos, dst, off + result, n);
+			pos    += n;
+			result += n;
+		}
+		return result == 0 && len > 0 ? -1 : result;
+	}
+
+	/**
+	 * Read one frame of audio samples. The rest of the last frame is filled with silence.
+	 * @param frame The frame to fill.
+	 * @return False if no samples are left.
+	 * @throws IOException If reading data fails.
+	 */
+	public boolean read(float[] frame) throws IOException {
+		final int n = read(frame, 0, frame.length);
+		if(n < 0) return false;
+		Arrays.fill(frame, n, frame.length, 0f);
+		return true;
+	}
+
+	/**
+	 * Replace the samples of the current frame with the next samples of the stream.
+	 */
+	@Override
+	protected void run(Stateless<IAudioRenderTarget> state) throws RenderCommandException {
+		final float[] frame = state.getTarget().getFrame().samples;
+		try {
+			if(!(read(frame)))
+				Arrays.fill(frame, 0f);
+		} catch(IOException e) {
+			throw new RenderCommandException(e);
+		}
+	}
+}
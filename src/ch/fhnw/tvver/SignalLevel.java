@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Adaptive noise floor and signal level for start detection and decision thresholds.
+ * The noise floor is the smoothed mean of a magnitude (e.g. of the samples or of tone 
+ * amplitudes) over short blocks. It follows falling levels quickly and rising levels slowly, 
+ * thus signal bursts hardly raise it. Receivers feed levels only while they wait for 
+ * a signal. The signal level is a smoothed envelope of levels measured on known 
+ * symbols, receivers scale their decision thresholds with it. This takes the place of
+ * an automatic gain control: scaling the samples instead would scale the noise alike
+ * and leave the decisions unchanged.
+ * 
+ * @author agent
+ *
+ */
+public final class SignalLevel {
+	/* Block duration in seconds. */
+	private static final double BLOCK   = 0.001;
+	/* Least number of levels per block. Averages levels which are measured on blocks themselves. */
+	private static final int    LEVELS  = 8;
+	/* Smoothing of a falling noise floor per block. */
+	private static final float  FALL    = 0.1f;
+	/* Time constant of a rising noise floor in seconds. */
+	private static final double RISE    = 0.5;
+	/* Smoothing of the signal envelope per measurement. */
+	private static final float  SMOOTH  = 0.25f;
+	/* Lower limit of the noise floor for magnitudes. Avoids triggering on filter tails in digital silence. */
+	private static final float  MIN     = 1e-3f;
+
+	/* Levels per block. */
+	private int   blockSz = 1;
+	/* Level accumulator and number of levels in the current block. */
+	private float sum;
+	private int   count;
+	/* Rise factor per block. */
+	private float rise;
+	/* Current noise floor, MAX_VALUE until the first block is complete. */
+	private float floor = Float.MAX_VALUE;
+	/* Current signal level, 0 if not measured yet. */
+	private float signal;
+
+	/**
+	 * Set up the block size and time constants and reset the levels.
+	 * @param rate Number of levels per second, e.g. the sampling frequency.
+	 */
+	public void init(float rate) {
+		blockSz = Math.max(LEVELS, (int)(BLOCK * rate));
+		rise    = (float)(blockSz / (rate * RISE));
+		reset();
+	}
+
+	/**
+	 * Forget the measured noise floor and signal level.
+	 */
+	public void reset() {
+		sum    = 0;
+		count  = 0;
+		floor  = Float.MAX_VALUE;
+		signal = 0;
+	}
+
+	/**
+	 * Add a level measured while no signal is expected. 
+	 * @param level The magnitude, e.g. of one sample.
+	 */
+	public void noise(float level) {
+		sum += level;
+		if(++count < blockSz) return;
+		final float mean = sum / count;
+		if(floor == Float.MAX_VALUE) floor  = mean;
+		else if(mean < floor)        floor += (mean - floor) * FALL;
+		else                         floor += (mean - floor) * rise;
+		sum   = 0;
+		count = 0;
+	}
+
+	/**
+	 * Add a level measured on a known symbol.
+	 * @param level The level of the symbol, in the same unit as the threshold is used.
+	 */
+	public void signal(float level) {
+		signal = signal == 0 ? level : signal + (level - signal) * SMOOTH;
+	}
+
+	/**
+	 * Forget the measured signal level, e.g. at the start of a new transmission.
+	 */
+	public void resetSignal() {
+		signal = 0;
+	}
+
+	/**
+	 * @return The noise floor, Float.MAX_VALUE if not measured yet.
+	 */
+	public float floor() {
+		return floor;
+	}
+
+	/**
+	 * @param factor Factor above the noise floor.
+	 * @return Detection threshold, Float.MAX_VALUE if the noise floor is not measured yet.
+	 */
+	public float threshold(float factor) {
+		return floor == Float.MAX_VALUE ? Float.MAX_VALUE : Math.max(floor, MIN) * factor;
+	}
+
+	/**
+	 * @return The signal level, 0 if not measured yet.
+	 */
+	public float signal() {
+		return signal;
+	}
+}
@@ -33,83 +33,191 @@ import java.util.Arrays;
 import ch.fhnw.ether.media.Parameter;
 
 /**
- * Simple receiver using amplitude modulation.
+ * Simple receiver using amplitude modulation. The phase of the first start symbol is 
+ * measured by correlation with the carrier. Following bytes are contiguous, thus the
+ * receiver keeps the symbol timing until a start symbol falls below the signal level
+ * of the previous ones.
  * 
  * @author sschubiger
  *
  */
 public class SimpleAMReceiver extends AbstractReceiver {
 	 
-	/* Experimental threshold for detecting start tone. Should be adaptive. */
-	private static final Parameter START_THRESH = new Parameter("start", "Start Threshold", 0,0.5f,0.1f);
+	/* Threshold for detecting start tone, relative to the mean magnitude of the noise. */
+	private static final Parameter START_THRESH = new Parameter("start", "Start Threshold", 1,20f,8f);
 	/* Threshold for detecting binary "one". */
-	private static final Parameter ONE_THRESH   =  new Parameter("one",  "One Threshold", 0,1f,0.5f);
+	private static final Parameter ONE_THRESH   =  new Parameter("one",  "One Threshold", 0,1f,0.32f);
+
+	private static final double PI2  = Math.PI * 2;
 
 	/* Idle / data state */
 	private boolean       idle = true;
+	/* Phase measurement of the first start symbol */
+	private boolean       sync;
 	/* Index for accumulating samples */
 	private int           energyIdx;
 	/* Energy accumulator */
-	private final float[] energy = new float[9];
-	/* Sample index into the current symbol */
+	private final float[] energy = new float[SimpleAMSender.SYMBOLS];
+	/* Sample index into the current symbol, negative before the first data symbol */
 	private int           sampleIdx;
-	/* Symbol phase of start symbol */
-	private int           symbolPhase;
+	/* Samples per symbol */
+	private int           symbolSz;
+	/* Carrier templates for one symbol */
+	private float[]       cos;
+	private float[]       sin;
+	/* Correlation of the first start symbol with the carrier */
+	private float         i;
+	private float         q;
 
 	public SimpleAMReceiver() {
 		super(START_THRESH, ONE_THRESH);
 	}
-	
+
+	@Override
+	public void init(float samplingFrequency) {
+		super.init(samplingFrequency);
+		symbolSz = (int) (samplingFrequency / SimpleAMSender.FREQ);
+		cos      = new float[symbolSz];
+		sin      = new float[symbolSz];
+		for(int i = 0; i < symbolSz; i++) {
+			cos[i] = (float)Math.cos(PI2*i/symbolSz);
+			sin[i] = (float)Math.sin(PI2*i/symbolSz);
+		}
+	}
+
+	/**
+	 * Take the correlation of the first symbol as timing and signal level reference.
+	 * Go back to idle if its amplitude is below the start threshold.
+	 */
+	private void sync() {
+		/* Filter tails may cross the threshold at single samples, require a start symbol above it. */
+		final float amp = 2 * (float)Math.sqrt(i * i + q * q) / symbolSz;
+		if(amp < level.threshold(getVal(START_THRESH))) {
+			idle = true;
+			sync = false;
+			lost();
+			return;
+		}
+		/* The symbol started delay samples before the window: sin(2*PI*(n+delay)/symbolSz) */
+		int delay = (int)Math.round(Math.atan2(i, q) * symbolSz / PI2);
+		if(delay < 0) delay += symbolSz;
+		/* Sum of squares of the start symbol */
+		energy[0] = 2 * (i * i + q * q) / symbolSz;
+		level.resetSignal();
+		level.signal(energy[0]);
+		synced(energy[0] / symbolSz);
+		energyIdx = 1;
+		/* A late window starts within the first samples of the start symbol. A phase beyond half 
+		 * a symbol means the window started early, e.g. on a filter tail, and the start symbol 
+		 * still runs for symbolSz - delay samples. */
+		sampleIdx = delay > symbolSz / 2 ? delay - symbolSz : delay;
+		sync      = false;
+	}
+
+	/**
+	 * Decode the byte in energy[].
+	 */
+	private void decode() {
+		/*  Collect bits. */
+		int val = 0;
+		for(int i = 0; i < 8; i++)
+			/* Use the signal level of the start symbols as reference value */
+			if(energy[i+1] > getVal(ONE_THRESH) * level.signal())
+				val |= 1 << i;
+		addData((byte) val);
+		/* Advance to next data byte */
+		energyIdx = 0;
+		Arrays.fill(energy, 0f);
+	}
+
 	/**
-	 * Process one sample (power).
+	 * Process one sample.
 	 * 
 	 * @param sample The sample to process.
 	 */
 	private void process(float sample) {
-		final int symbolSz = (int) (samplingFrequency / SimpleAMSender.FREQ);
-		symbolPhase        = symbolSz / 4;
+		final float power = sample * sample;
 
 		/* Wait for signal to rise above start threshold. */
 		if(idle) {
-			if(sample > getVal(START_THRESH)) {
-				sampleIdx = symbolPhase;
-				idle     = false;
-			}
-		} else {
-			/* Accumulate energy */
-			energy[energyIdx] += sample;
-			/* End of symbol? */
-			if(++sampleIdx == symbolSz) {
-				/* Advance to next symbol */ 
+			final float thresh = level.threshold(getVal(START_THRESH));
+			if(power > thresh * thresh) {
+				idle      = false;
+				sync      = true;
 				sampleIdx = 0;
-				energyIdx++;
-				/* Enough data for a byte? */
-				if(energyIdx == energy.length) {
-					/*  Collect bits. */
-					int val = 0;
-					for(int i = 0; i < 8; i++)
-						/* Use first symbol as reference value */
-						if(energy[i+1] > getVal(ONE_THRESH) * energy[0])
-							val |= 1 << i;
-					addData((byte) val);
-					/* Advance to next data byte */
-					energyIdx = 0;
-					sampleIdx = symbolPhase;
-					Arrays.fill(energy, 0f);
-					idle = true;
-				}
+				i         = 0;
+				q         = 0;
+				Arrays.fill(energy, 0f);
+			} else {
+				level.noise(Math.abs(sample));
+				return;
+			}
+		}
+
+		if(sync) {
+			i += sample * cos[sampleIdx];
+			q += sample * sin[sampleIdx];
+			if(++sampleIdx == symbolSz)
+				sync();
+			return;
+		}
+
+		/* Skip the rest of the start symbol */
+		if(sampleIdx < 0) {
+			sampleIdx++;
+			return;
+		}
+		/* Accumulate energy */
+		energy[energyIdx] += power;
+		/* End of symbol? */
+		if(++sampleIdx == symbolSz)
+			endOfSymbol();
+	}
+
+	/**
+	 * Advance to the next symbol.
+	 */
+	private void endOfSymbol() {
+		sampleIdx = 0;
+		energyIdx++;
+		/* Start symbol below the signal level: end of transmission. */
+		if(energyIdx == 1) {
+			if(energy[0] < getVal(ONE_THRESH) * level.signal()) {
+				idle = true;
+				return;
 			}
+			level.signal(energy[0]);
 		}
+		symbol();
+		/* Enough data for a byte? */
+		if(energyIdx == energy.length)
+			decode();
 	}
 
 	/**
-	 * Process samples. Samples are squared (power).
+	 * Process samples. Within symbols the energy is accumulated block-wise on the DSP kernels.
 	 * 
 	 * @param samples The samples to process.
 	 */
 	@Override
 	protected void process(float[] samples) {
-		for(int i = 0; i < samples.length; i++)
-			process(samples[i]*samples[i]);
+		for(int i = 0; i < samples.length;) {
+			if(idle || sync) {
+				process(samples[i++]);
+				continue;
+			}
+			if(sampleIdx < 0) {
+				final int n = Math.min(-sampleIdx, samples.length - i);
+				sampleIdx += n;
+				i         += n;
+				continue;
+			}
+			final int n = Math.min(symbolSz - sampleIdx, samples.length - i);
+			energy[energyIdx] += DSP.INSTANCE.energy(samples, i, n);
+			sampleIdx += n;
+			i         += n;
+			if(sampleIdx == symbolSz)
+				endOfSymbol();
+		}
 	}
-}
\ No newline at end of file
+}
@@ -28,8 +28,6 @@
  */
 package ch.fhnw.tvver;
 
-import ch.fhnw.util.FloatList;
-
 /**
  * Simple sender using amplitude modulation.
  * 
@@ -37,22 +35,65 @@ import ch.fhnw.util.FloatList;
  *
  */
 public class SimpleAMSender extends AbstractSender {
-	private static final double PI2  = Math.PI * 2;
 	/* Carrier frequency. */
 	static         final float  FREQ = 3000;
+	/* Number of symbols per byte (start symbol and eight data bits). */
+	static         final int    SYMBOLS = 9;
+
+	/* Precomputed waveforms of all byte values. */
+	private final WaveformCache cache = new WaveformCache(this::waveform);
+	/* Carrier oscillator. Symbols span one full cycle, so cached waveforms stay phase continuous. */
+	private final NCO           carrier = new NCO();
 
 	/**
-	 * Create a wave with given amplitude. 
+	 * Write a wave with given amplitude. 
 	 * @param amp Amplitude for this symbol.
-	 * @return Audio data for symbol.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the symbol.
+	 */
+	private int symbol(float amp, float[] dst, int off) {
+		return carrier.sin(dst, off, symbolSize(), amp);
+	}
+
+	/**
+	 * Write amplitude modulated wave for a given data byte.
+	 * @param data Data byte to encode.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the byte.
 	 */
-	private float[] symbol(float amp) {
-		final int symbolSz = (int) (samplingFrequency / FREQ);
-		final float[] result = new float[symbolSz];
+	private int waveform(byte data, float[] dst, int off) {
+		/* Send start bit. */
+		off = symbol(1f, dst, off);
+		/* Send data bits. */
+		for(int i = 0; i < 8; i++)
+			off = symbol((data & (1 << i)) == 0 ? 0 : 0.8f, dst, off);
+		return off;
+	}
 
-		for(int i = 0; i < result.length; i++)
-			result[i] = (float)(Math.sin((PI2 * i) / symbolSz)) * amp;
+	private int symbolSize() {
+		return (int) (samplingFrequency / FREQ);
+	}
 
+	/**
+	 * Set the memory budget of the waveform cache. Waveforms are synthesized 
+	 * on the fly if the cache does not fit into the budget.
+	 * @param bytes Maximum size of the cache in bytes.
+	 */
+	public void setCacheBudget(int bytes) {
+		cache.setBudget(bytes);
+	}
+
+	/**
+	 * Rebuild the waveform cache for the sampling frequency.
+	 */
+	@Override
+	public float[] init(float samplingFrequency) {
+		float[] result = super.init(samplingFrequency);
+		carrier.setFrequency(samplingFrequency / symbolSize(), samplingFrequency);
+		carrier.reset();
+		cache.update(samplingFrequency, SYMBOLS * symbolSize());
 		return result;
 	}
 
@@ -62,14 +103,21 @@ public class SimpleAMSender extends AbstractSender {
 	 */
 	@Override
 	public float[] synthesize(byte data) {
-		FloatList result = new FloatList();
+		float[] result = new float[SYMBOLS * symbolSize()];
+		cache.synthesize(data, result, 0);
+		return result;
+	}
 
-		/* Send start bit. */
-		result.addAll(symbol(1f));
-		/* Send data bits. */
-		for(int i = 0; i < 8; i++)
-			result.addAll(symbol((data & (1 << i)) == 0 ? 0 : 0.8f));
+	@Override
+	public int getNumSamples(byte[] data, int off, int len) {
+		return len * SYMBOLS * symbolSize();
+	}
 
-		return result.toArray();
+	@Override
+	public int synthesizeInto(byte[] src, int off, int len, float[] dst, int dstOff) {
+		int pos = dstOff;
+		for(int i = off; i < off + len; i++)
+			pos = cache.synthesize(src[i], dst, pos);
+		return pos - dstOff;
 	}
 }
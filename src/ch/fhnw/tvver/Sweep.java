@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a modem over a grid of channel bands, noise levels and gains. The transmission
+ * is synthesized once, each grid point gets its own Channel and receiver and the points 
+ * are evaluated in parallel on a ForkJoinPool. Multi-channel modems are evaluated with 
+ * FRAME_SIZE samples per channel and frame.
+ * 
+ * @author agent
+ *
+ */
+public final class Sweep {
+	/* Default grid. */
+	static final float[]   GAINS  = {1, 0.75f, 0.5f, 0.25f};
+	static final float[]   NOISES = {0, 0.05f, 0.1f, 0.15f, 0.2f, 0.3f};
+	static final float[][] BANDS  = {{Main.LOW_FREQ, Main.HIGH_FREQ}, {300, 3400}};
+	/* Default sampling frequency. */
+	static final float     SAMPLING_FREQUENCY = Main.SAMPLING_FREQUENCY;
+	/* Silence before and after the transmission, in samples at SAMPLING_FREQUENCY. */
+	static final int       SILENCE            = 4096;
+	/* Samples per process() call at SAMPLING_FREQUENCY, as delivered by the audio pipeline. */
+	static final int       FRAME_SIZE         = 1024;
+
+	/**
+	 * Result of one grid point.
+	 */
+	public static final class Point {
+		public final float  low;
+		public final float  high;
+		public final float  noise;
+		public final float  gain;
+		public final double errorrate;
+		public final double bitrate;
+		public final double grade;
+
+		Point(float low, float high, float noise, float gain, double errorrate, double bitrate) {
+			this.low       = low;
+			this.high      = high;
+			this.noise     = noise;
+			this.gain      = gain;
+			this.errorrate = errorrate;
+			this.bitrate   = bitrate;
+			this.grade     = Main.grade(errorrate, bitrate);
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%6.0f %6.0f %6.3f %6.3f %10.6f %10.1f %6.3f", low, high, noise, gain, errorrate, bitrate, grade);
+		}
+	}
+
+	private final String  modem;
+	private final byte[]  data;
+	private final float[] transmission;
+	private final int     channels;
+	private final float   samplingFrequency;
+	private final double  duration;
+
+	/**
+	 * Synthesize the transmission for a sweep.
+	 * @param modem The modem name, e.g. "QAM".
+	 * @param data The data to send.
+	 * @throws ReflectiveOperationException If the modem cannot be created.
+	 */
+	public Sweep(String modem, byte[] data) throws ReflectiveOperationException {
+		this(modem, data, SAMPLING_FREQUENCY);
+	}
+
+	/**
+	 * Synthesize the transmission for a sweep.
+	 * @param modem The modem name, e.g. "QAM".
+	 * @param data The data to send.
+	 * @param samplingFrequency The sampling frequency of the channel.
+	 * @throws ReflectiveOperationException If the modem cannot be created.
+	 */
+	public Sweep(String modem, byte[] data, float samplingFrequency) throws ReflectiveOperationException {
+		AbstractSender sender   = Modems.sender(modem);
+		float[]        preamble = sender.init(samplingFrequency);
+		int            samples  = preamble.length + sender.getNumSamples(data, 0, data.length);
+		int            silence  = scale(SILENCE, samplingFrequency) * sender.getNumChannels();
+		this.modem             = modem;
+		this.data              = data;
+		this.channels          = sender.getNumChannels();
+		this.samplingFrequency = samplingFrequency;
+		this.transmission      = new float[silence + samples + silence];
+		this.duration          = samples / channels / samplingFrequency;
+		System.arraycopy(preamble, 0, transmission, silence, preamble.length);
+		sender.synthesizeInto(data, 0, data.length, transmission, silence + preamble.length);
+	}
+
+	/**
+	 * Evaluate one grid point.
+	 */
+	private Point run(float low, float high, float noise, float gain, long seed) throws ReflectiveOperationException {
+		final Channel          channel = new Channel(samplingFrequency, low, high, noise, gain, seed, channels);
+		final AbstractReceiver recv    = Modems.receiver(modem);
+		final float[]          frame   = new float[scale(FRAME_SIZE, samplingFrequency) * channels];
+		recv.init(samplingFrequency);
+		for(int i = 0; i < transmission.length; i += frame.length) {
+			final int len = Math.min(frame.length, transmission.length - i);
+			channel.process(transmission, i, len, frame, 0);
+			if(len < frame.length)
+				Arrays.fill(frame, len, frame.length, 0f);
+			recv.receive(frame);
+		}
+		return new Point(low, high, noise, gain, Main.errors(data, recv.getAndClearData()) / (double)data.length, data.length * 8 / duration);
+	}
+
+	/**
+	 * @return samples at SAMPLING_FREQUENCY converted to the same duration at samplingFrequency.
+	 */
+	static int scale(int samples, float samplingFrequency) {
+		return Math.round(samples * samplingFrequency / SAMPLING_FREQUENCY);
+	}
+
+	/**
+	 * Evaluate all combinations of bands, noise levels and gains.
+	 * @param bands Pairs of lower and upper cut-off frequency.
+	 * @param noises Noise amplitudes.
+	 * @param gains Attenuations.
+	 * @param pool The pool to run the grid points on.
+	 * @return The results ordered by band, noise and gain.
+	 * @throws ExecutionException If a grid point fails.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public List<Point> run(float[][] bands, float[] noises, float[] gains, ForkJoinPool pool) throws InterruptedException, ExecutionException {
+		List<Callable<Point>> tasks = new ArrayList<>();
+		for(float[] band : bands)
+			for(float noise : noises)
+				for(float gain : gains) {
+					final long seed = tasks.size();
+					tasks.add(() -> run(band[0], band[1], noise, gain, seed));
+				}
+		List<Point> result = new ArrayList<>(tasks.size());
+		for(Future<Point> point : pool.invokeAll(tasks))
+			result.add(point.get());
+		return result;
+	}
+
+	/**
+	 * Run a sweep over the default grid and print the table.
+	 * 
+	 * @param args First argument is the modem name as for Main, e.g. "QAM". Optional second
+	 * argument is the number of bytes to send (default 1024), optional third argument the
+	 * number of threads (default all cores), optional fourth argument the sampling frequency
+	 * (default 48000).
+	 * @throws Exception Upon error.
+	 */
+	public static void main(String[] args) throws Exception {
+		final int  length  = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+		final int  threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		final float  rate  = args.length > 3 ? Float.parseFloat(args[3]) : SAMPLING_FREQUENCY;
+		final byte[] data  = new byte[length];
+		new Random(length).nextBytes(data);
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			long        time   = System.nanoTime();
+			List<Point> points = new Sweep(args[0], data, rate).run(BANDS, NOISES, GAINS, pool);
+			time = System.nanoTime() - time;
+
+			System.out.println("   low   high  noise   gain  errorrate     bits/s  grade");
+			for(Point point : points)
+				System.out.println(point);
+			System.out.printf(Locale.ROOT, "%s: %d points on %d threads in %.2f s%n", args[0], points.size(), threads, time / 1e9);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+/**
+ * Cache holding the precomputed waveforms of all 256 byte values of a sender. Synthesizing
+ * a byte becomes a single array copy. The cache is only built if it fits into its memory
+ * budget, otherwise the sender synthesizes its waveforms on the fly.
+ * 
+ * @author agent
+ *
+ */
+public final class WaveformCache {
+	/** Default memory budget in bytes. */
+	public static final int DEFAULT_BUDGET = 1 << 20;
+
+	/**
+	 * Waveform generator for a single byte.
+	 */
+	public interface IWaveform {
+		/**
+		 * Write the waveform for a data byte.
+		 * @param data The data byte.
+		 * @param dst Destination for the audio data.
+		 * @param off Offset into dst.
+		 * @return Offset after the waveform.
+		 */
+		int synthesize(byte data, float[] dst, int off);
+	}
+
+	private final IWaveform waveform;
+	/* Memory budget in bytes. */
+	private int             budget = DEFAULT_BUDGET;
+	/* Sampling frequency of the cached waveforms, zero if not built. */
+	private float           samplingFrequency;
+	/* Samples per byte. */
+	private int             stride;
+	/* Waveforms of all byte values, stride samples each, or null. */
+	private float[]         table;
+
+	public WaveformCache(IWaveform waveform) {
+		this.waveform = waveform;
+	}
+
+	/**
+	 * Set the memory budget. An already built cache is dropped if it exceeds the new budget.
+	 * @param bytes Maximum size of the cache in bytes. Zero disables the cache.
+	 */
+	public void setBudget(int bytes) {
+		budget = bytes;
+		if(table != null && (long)table.length * 4 > budget)
+			table = null;
+		if(table == null && samplingFrequency > 0)
+			build();
+	}
+
+	/**
+	 * Rebuild the cache if the sampling frequency or the waveform size changed.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param stride The number of samples per byte.
+	 */
+	public void update(float samplingFrequency, int stride) {
+		if(this.samplingFrequency == samplingFrequency && this.stride == stride && table != null)
+			return;
+		this.samplingFrequency = samplingFrequency;
+		this.stride            = stride;
+		this.table             = null;
+		build();
+	}
+
+	private void build() {
+		long size = 256L * stride;
+		if(size * 4 > budget) return;
+		float[] result = new float[(int)size];
+		for(int i = 0; i < 256; i++)
+			waveform.synthesize((byte)i, result, i * stride);
+		table = result;
+	}
+
+	/**
+	 * Write the waveform for a data byte, from the cache if available.
+	 * @param data The data byte.
+	 * @param dst Destination for the audio data.
+	 * @param off Offset into dst.
+	 * @return Offset after the waveform.
+	 */
+	public int synthesize(byte data, float[] dst, int off) {
+		if(table == null)
+			return waveform.synthesize(data, dst, off);
+		System.arraycopy(table, (data & 0xFF) * stride, dst, off, stride);
+		return off + stride;
+	}
+
+	/**
+	 * @return True if the waveforms are cached.
+	 */
+	public boolean isCached() {
+		return table != null;
+	}
+}
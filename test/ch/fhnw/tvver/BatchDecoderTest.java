@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+import org.junit.Test;
+
+/**
+ * Decoding of wav files by BatchDecoder, with matching and mismatching channel counts.
+ * 
+ * @author agent
+ *
+ */
+public class BatchDecoderTest {
+	private static final float SAMPLING_FREQUENCY = 48000;
+
+	/**
+	 * Write a transmission of modem through a noise-free channel to a 16 bit wav file.
+	 */
+	private static Path record(Path dir, String modem, byte[] data) throws IOException, ReflectiveOperationException {
+		final AbstractSender sender   = Modems.sender(modem);
+		final float[]        preamble = sender.init(SAMPLING_FREQUENCY);
+		final int            channels = sender.getNumChannels();
+		final int            silence  = Sweep.SILENCE * channels;
+		final float[]        signal   = new float[silence + preamble.length + sender.getNumSamples(data, 0, data.length) + silence];
+		System.arraycopy(preamble, 0, signal, silence, preamble.length);
+		sender.synthesizeInto(data, 0, data.length, signal, silence + preamble.length);
+		new Channel(SAMPLING_FREQUENCY, Main.LOW_FREQ, Main.HIGH_FREQ, 0, 1, 0, channels).process(signal);
+
+		final byte[] pcm = new byte[BatchDecoder.SAMPLE_SZ * signal.length];
+		for(int i = 0; i < signal.length; i++) {
+			final int v = Math.round(Math.max(-1, Math.min(1, signal[i])) * 32767);
+			pcm[2 * i]     = (byte)v;
+			pcm[2 * i + 1] = (byte)(v >> 8);
+		}
+		final AudioFormat format = new AudioFormat(SAMPLING_FREQUENCY, 8 * BatchDecoder.SAMPLE_SZ, channels, true, false);
+		final Path        file   = dir.resolve(modem + ".wav");
+		AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), format, signal.length / channels), AudioFileFormat.Type.WAVE, file.toFile());
+		return file;
+	}
+
+	private static List<BatchDecoder.Result> decode(String modem, byte[] reference, Path... files) throws InterruptedException {
+		final List<BatchDecoder.Result> result = new ArrayList<>();
+		new BatchDecoder(modem, 2, reference).decode(Arrays.asList(files), result::add);
+		return result;
+	}
+
+	private static void delete(Path dir) throws IOException {
+		try(Stream<Path> paths = Files.walk(dir)) {
+			for(Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator)
+				Files.delete(path);
+		}
+	}
+
+	@Test
+	public void channels() throws Exception {
+		final byte[] data = new byte[200];
+		new Random(5).nextBytes(data);
+		final Path dir = Files.createTempDirectory("batch");
+		try {
+			final Path mono   = record(dir, "QAM", data);
+			final Path stereo = record(dir, "2CH+QAM", data);
+			for(BatchDecoder.Result result : decode("QAM", data, mono)) {
+				assertNull(result.failure);
+				assertEquals(1, result.channels);
+				assertEquals(0, result.errors);
+				assertArrayEquals(data, result.data);
+			}
+			for(BatchDecoder.Result result : decode("2CH+QAM", data, stereo)) {
+				assertNull(result.failure);
+				assertEquals(2, result.channels);
+				assertEquals(0, result.errors);
+				assertArrayEquals(data, result.data);
+			}
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void channelMismatch() throws Exception {
+		final byte[] data = new byte[50];
+		new Random(6).nextBytes(data);
+		final Path dir = Files.createTempDirectory("batch");
+		try {
+			final Path mono   = record(dir, "QAM", data);
+			final Path stereo = record(dir, "2CH+QAM", data);
+			final List<BatchDecoder.Result> results = new ArrayList<>(decode("QAM", data, stereo));
+			results.addAll(decode("2CH+QAM", data, mono));
+			assertEquals(2, results.size());
+			for(BatchDecoder.Result result : results) {
+				assertNotNull(result.failure);
+				assertEquals(0, result.data.length);
+				assertEquals(-1, result.errors);
+			}
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void files() throws Exception {
+		final Path dir = Files.createTempDirectory("batch");
+		try {
+			Files.createDirectories(dir.resolve("a"));
+			for(String name : new String[] {"x_recv.wav", "a/y_recv.wav", "a/z_send.wav", "a/w.txt"})
+				Files.write(dir.resolve(name), new byte[0]);
+			/* A directory stands for the wav files directly in it, patterns may descend. */
+			assertEquals(Arrays.asList(dir.resolve("x_recv.wav").toAbsolutePath()), BatchDecoder.files(dir.toString()));
+			assertEquals(Arrays.asList(dir.resolve("a/y_recv.wav").toAbsolutePath(), dir.resolve("x_recv.wav").toAbsolutePath()), 
+					BatchDecoder.files(dir + "/**_recv.wav"));
+		} finally {
+			delete(dir);
+		}
+	}
+}
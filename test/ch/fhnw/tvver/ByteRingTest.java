@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Overflow policies and the producer / consumer protocol of ByteRing.
+ * 
+ * @author agent
+ *
+ */
+public class ByteRingTest {
+	/* Bytes passed between the threads of the concurrent tests. */
+	private static final int COUNT = 1 << 20;
+
+	@Test
+	public void capacity() {
+		assertEquals(8, new ByteRing(5, ByteRing.Overflow.FAIL).capacity());
+		assertEquals(8, new ByteRing(8, ByteRing.Overflow.FAIL).capacity());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidCapacity() {
+		new ByteRing(0, ByteRing.Overflow.FAIL);
+	}
+
+	@Test
+	public void wrapAround() {
+		final ByteRing   ring = new ByteRing(8, ByteRing.Overflow.FAIL);
+		final ByteBuffer dst  = ByteBuffer.allocate(5);
+		int next = 0;
+		int expected = 0;
+		for(int round = 0; round < 10; round++) {
+			for(int i = 0; i < 5; i++)
+				assertTrue(ring.put((byte)next++));
+			dst.clear();
+			assertEquals(5, ring.drain(dst));
+			for(int i = 0; i < 5; i++)
+				assertEquals((byte)expected++, dst.get(i));
+		}
+		assertEquals(0, ring.available());
+		assertEquals(0, ring.drain().length);
+	}
+
+	@Test
+	public void drop() {
+		final ByteRing ring = new ByteRing(4, ByteRing.Overflow.DROP);
+		for(int i = 0; i < 6; i++)
+			assertEquals(i < 4, ring.put((byte)i));
+		assertEquals(2, ring.getDropped());
+		final byte[] data = ring.drain();
+		assertEquals(4, data.length);
+		assertEquals(3, data[3]);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void fail() {
+		final ByteRing ring = new ByteRing(4, ByteRing.Overflow.FAIL);
+		for(int i = 0; i < 5; i++)
+			ring.put((byte)i);
+	}
+
+	@Test
+	public void grow() {
+		final ByteRing ring = new ByteRing(4, ByteRing.Overflow.GROW);
+		/* Move the head away from index 0, thus the copy has to unwrap the bytes. */
+		ring.put((byte)-1);
+		ring.put((byte)-2);
+		ring.put((byte)-3);
+		ring.drain(ByteBuffer.allocate(3));
+		for(int i = 0; i < 100; i++)
+			assertTrue(ring.put((byte)i));
+		assertEquals(128, ring.capacity());
+		assertEquals(0, ring.getDropped());
+		final byte[] data = ring.drain();
+		assertEquals(100, data.length);
+		for(int i = 0; i < data.length; i++)
+			assertEquals((byte)i, data[i]);
+	}
+
+	/**
+	 * Pass COUNT bytes from a producer thread to the calling thread.
+	 */
+	private static void transfer(ByteRing ring) throws InterruptedException {
+		final Thread producer = new Thread(() -> {
+			for(int i = 0; i < COUNT; i++)
+				ring.put((byte)i);
+		});
+		producer.start();
+		final ByteBuffer dst = ByteBuffer.allocate(1000);
+		int received = 0;
+		while(received < COUNT) {
+			dst.clear();
+			final int n = ring.drain(dst);
+			for(int i = 0; i < n; i++, received++)
+				if(dst.get(i) != (byte)received)
+					throw new AssertionError("byte " + received + " is " + dst.get(i));
+			if(n == 0) Thread.yield();
+		}
+		producer.join();
+		assertEquals(0, ring.available());
+		assertEquals(0, ring.getDropped());
+	}
+
+	@Test
+	public void block() throws InterruptedException {
+		transfer(new ByteRing(64, ByteRing.Overflow.BLOCK));
+	}
+
+	@Test
+	public void growConcurrently() throws InterruptedException {
+		transfer(new ByteRing(16, ByteRing.Overflow.GROW));
+	}
+}
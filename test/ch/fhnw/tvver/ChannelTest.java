@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Reproducibility of Channel.
+ * 
+ * @author agent
+ *
+ */
+public class ChannelTest {
+	private static float[] signal(int len) {
+		final float[] result = new float[len];
+		for(int i = 0; i < len; i++)
+			result[i] = (float)Math.sin(2 * Math.PI * 1000 * i / 48000);
+		return result;
+	}
+
+	@Test
+	public void blockSize() {
+		for(int channels = 1; channels <= 3; channels++) {
+			final float[] whole  = signal(channels * 20000);
+			final float[] blocks = whole.clone();
+			new Channel(48000, Main.LOW_FREQ, Main.HIGH_FREQ, Main.NOISE, 1, 7, channels).process(whole);
+
+			final Channel channel = new Channel(48000, Main.LOW_FREQ, Main.HIGH_FREQ, Main.NOISE, 1, 7, channels);
+			final Random  random  = new Random(channels);
+			for(int i = 0; i < blocks.length;) {
+				final int len = Math.min(channels * (1 + random.nextInt(1000)), blocks.length - i);
+				channel.process(blocks, i, len, blocks, i);
+				i += len;
+			}
+			assertArrayEquals(channels + " channels", whole, blocks, 0);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Encode, corrupt and Viterbi decode blocks of ConvolutionalCode. The free distance of the
+ * code is 10, thus any 4 bit errors per block are corrected.
+ * 
+ * @author agent
+ *
+ */
+public class ConvolutionalCodeTest {
+	/* Bit errors corrected anywhere in a block, (free distance - 1) / 2. */
+	private static final int T = 4;
+
+	private static byte[] data(FEC fec, long seed) {
+		final byte[] result = new byte[fec.getDataSize()];
+		new Random(seed).nextBytes(result);
+		return result;
+	}
+
+	private static byte[] encode(FEC fec, byte[] data) {
+		final byte[] result = new byte[fec.getCodeSize()];
+		fec.encode(data, 0, result, 0);
+		return result;
+	}
+
+	private static void flip(byte[] code, int bit) {
+		code[bit >> 3] ^= 0x80 >> (bit & 7);
+	}
+
+	@Test
+	public void clean() {
+		final FEC    fec     = new ConvolutionalCode();
+		final byte[] data    = data(fec, 1);
+		final byte[] decoded = new byte[data.length];
+		/* Rate 1/2 and six tail bits. */
+		assertEquals(2 * data.length + 2, fec.getCodeSize());
+		assertEquals(0, fec.decode(encode(fec, data), 0, decoded, 0));
+		assertArrayEquals(data, decoded);
+	}
+
+	@Test
+	public void correctable() {
+		final FEC fec = new ConvolutionalCode();
+		for(long seed = 0; seed < 50; seed++) {
+			final Random random = new Random(seed);
+			final byte[] data   = data(fec, seed);
+			final byte[] code   = encode(fec, data);
+			/* t distinct bit errors within a few constraint lengths. */
+			final int start = random.nextInt(8 * code.length - 64);
+			final boolean[] hit = new boolean[64];
+			for(int e = 0; e < T; e++) {
+				int bit;
+				do bit = random.nextInt(64); while(hit[bit]);
+				hit[bit] = true;
+				flip(code, start + bit);
+			}
+			final byte[] decoded = new byte[data.length];
+			/* The result is the Hamming distance to the decoded path. */
+			assertEquals(T, fec.decode(code, 0, decoded, 0));
+			assertArrayEquals(data, decoded);
+		}
+	}
+
+	@Test
+	public void spread() {
+		final FEC    fec  = new ConvolutionalCode();
+		final byte[] data = data(fec, 2);
+		final byte[] code = encode(fec, data);
+		/* Isolated errors are corrected independently of their number. */
+		int errors = 0;
+		for(int bit = 0; bit < 8 * code.length; bit += 50, errors++)
+			flip(code, bit);
+		final byte[] decoded = new byte[data.length];
+		assertEquals(errors, fec.decode(code, 0, decoded, 0));
+		assertArrayEquals(data, decoded);
+	}
+
+	@Test
+	public void burst() {
+		final FEC fec = new ConvolutionalCode();
+		for(int start = 0; start < 4000; start += 397) {
+			final byte[] data = data(fec, start);
+			final byte[] code = encode(fec, data);
+			/* A corrupt byte pair of the code exceeds the free distance. */
+			for(int bit = start; bit < start + 16; bit++)
+				flip(code, bit);
+			final byte[] decoded = new byte[data.length];
+			fec.decode(code, 0, decoded, 0);
+			assertFalse("burst at " + start, Arrays.equals(data, decoded));
+		}
+	}
+
+	@Test
+	public void shortBlock() {
+		final FEC    fec     = new ConvolutionalCode(3);
+		final byte[] data    = {(byte)0xA5, 0x00, (byte)0xFF};
+		final byte[] code    = encode(fec, data);
+		final byte[] decoded = new byte[data.length];
+		/* First and last coded bit, the last bits of the last byte are padding. */
+		flip(code, 0);
+		flip(code, 2 * (8 * data.length + 6) - 1);
+		assertEquals(2, fec.decode(code, 0, decoded, 0));
+		assertArrayEquals(data, decoded);
+	}
+}
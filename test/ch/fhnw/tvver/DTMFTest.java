@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tone detection by the Goertzel filter bank and round trips of DTMFSender and DTMFReceiver.
+ * 
+ * @author agent
+ *
+ */
+public class DTMFTest {
+	/**
+	 * Send data through the channel of Main and feed the receiver frames of frameSize samples.
+	 * @param data The data to send.
+	 * @param frameSize The receiver frame size.
+	 * @return The received data.
+	 */
+	private static byte[] transmit(byte[] data, int frameSize) {
+		final float          samplingFrequency = 48000;
+		final DTMFSender     sender   = new DTMFSender();
+		final float[]        preamble = sender.init(samplingFrequency);
+		final int            silence  = Sweep.scale(Sweep.SILENCE, samplingFrequency);
+		final float[]        signal   = new float[silence + preamble.length + sender.getNumSamples(data, 0, data.length) + silence];
+		System.arraycopy(preamble, 0, signal, silence, preamble.length);
+		sender.synthesizeInto(data, 0, data.length, signal, silence + preamble.length);
+
+		final Channel      channel  = new Channel(samplingFrequency, 1, data.length);
+		final DTMFReceiver receiver = new DTMFReceiver();
+		receiver.init(samplingFrequency);
+		final float[] frame = new float[frameSize];
+		for(int i = 0; i < signal.length; i += frame.length) {
+			final int len = Math.min(frame.length, signal.length - i);
+			channel.process(signal, i, len, frame, 0);
+			Arrays.fill(frame, len, frame.length, 0f);
+			receiver.receive(frame);
+		}
+		return receiver.getAndClearData();
+	}
+
+	@Test
+	public void goertzel() {
+		final float   samplingFrequency = 48000;
+		final float[] tone      = new float[(int)(DTMFSender.TONE * samplingFrequency)];
+		final float[] amplitude = new float[DTMFReceiver.FREQS.length];
+		for(int f = 0; f < DTMFReceiver.FREQS.length; f++) {
+			for(int i = 0; i < tone.length; i++)
+				tone[i] = (float)Math.sin(2 * Math.PI * DTMFReceiver.FREQS[f] * i / samplingFrequency);
+			final Goertzel bank = new Goertzel(samplingFrequency, DTMFReceiver.FREQS);
+			/* Pieces of any size make up one block. */
+			bank.process(tone, 0, 100);
+			bank.process(tone, 100, tone.length - 100);
+			bank.amplitudes(amplitude);
+			assertEquals(DTMFReceiver.FREQS[f] + " Hz", 1, amplitude[f], 0.02);
+			/* The neighbours within the group of the tone are rejected over one DTMF signal. */
+			final int group = f < 4 ? 0 : 4;
+			for(int k = group; k < group + 4; k++)
+				if(k != f) assertTrue(DTMFReceiver.FREQS[f] + " Hz at " + DTMFReceiver.FREQS[k] + " Hz: " + amplitude[k], amplitude[k] < 0.25f);
+		}
+	}
+
+	@Test
+	public void allBytes() {
+		final byte[] data = new byte[256];
+		for(int i = 0; i < data.length; i++)
+			data[i] = (byte)i;
+		assertArrayEquals(data, transmit(data, Sweep.FRAME_SIZE));
+	}
+
+	@Test
+	public void frameSizes() {
+		final byte[] data = new byte[32];
+		new Random(data.length).nextBytes(data);
+		for(int frameSize : new int[] {1, 7, 119, 121, 4096})
+			assertArrayEquals("frame size " + frameSize, data, transmit(data, frameSize));
+	}
+}
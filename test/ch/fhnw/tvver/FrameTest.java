@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Sync search, CRC check and truncation handling of FrameReceiver. The frames are carried 
+ * by a loopback modem with one sample per byte, thus bits can be corrupted directly.
+ * 
+ * @author agent
+ *
+ */
+public class FrameTest {
+	/* Payload bytes per frame and bytes per full frame. */
+	private static final int PAYLOAD = 16;
+	private static final int FRAME   = FrameSender.SYNC_SZ + FrameSender.LENGTH + PAYLOAD + FrameSender.CRC_SZ;
+
+	/* One sample per byte. */
+	private static final class LoopbackSender extends AbstractSender {
+		@Override
+		public float[] synthesize(byte b) {
+			return new float[] {b};
+		}
+	}
+
+	private static final class LoopbackReceiver extends AbstractReceiver {
+		@Override
+		protected void process(float[] samples) {
+			for(float sample : samples)
+				addData((byte)sample);
+		}
+	}
+
+	private static byte[] data(int len) {
+		final byte[] result = new byte[len];
+		new Random(len).nextBytes(result);
+		return result;
+	}
+
+	private static float[] send(byte[] data) {
+		final FrameSender sender = new FrameSender(new LoopbackSender(), PAYLOAD);
+		sender.init(48000);
+		return sender.synthesize(data);
+	}
+
+	/**
+	 * Flip bits of a byte of the stream.
+	 * @param stream The samples, one per byte.
+	 * @param pos Byte position.
+	 * @param mask The bits to flip.
+	 */
+	private static void flip(float[] stream, int pos, int mask) {
+		stream[pos] = (byte)((byte)stream[pos] ^ mask);
+	}
+
+	private static FrameReceiver receive(float[] stream) {
+		final FrameReceiver receiver = new FrameReceiver(new LoopbackReceiver(), PAYLOAD);
+		receiver.init(48000);
+		/* Frames of 7 samples, sync words and frames span several calls. */
+		for(int i = 0; i < stream.length; i += 7)
+			receiver.receive(Arrays.copyOfRange(stream, i, Math.min(i + 7, stream.length)));
+		return receiver;
+	}
+
+	/**
+	 * @return data without the payload of frame.
+	 */
+	private static byte[] without(byte[] data, int frame) {
+		final byte[] result = new byte[data.length - PAYLOAD];
+		System.arraycopy(data, 0, result, 0, frame * PAYLOAD);
+		System.arraycopy(data, (frame + 1) * PAYLOAD, result, frame * PAYLOAD, result.length - frame * PAYLOAD);
+		return result;
+	}
+
+	@Test
+	public void roundTrip() {
+		/* Last frame partial. */
+		final byte[] data = data(5 * PAYLOAD + 3);
+		final float[] stream = send(data);
+		assertEquals(5 * FRAME + FRAME - PAYLOAD + 3, stream.length);
+		final FrameReceiver receiver = receive(stream);
+		assertArrayEquals(data, receiver.getAndClearData());
+		assertEquals(6, receiver.getGoodFrames());
+		assertEquals(0, receiver.getBadFrames());
+	}
+
+	@Test
+	public void syncErrors() {
+		final byte[] data = data(6 * PAYLOAD);
+		/* Up to two bit errors in a sync word, on one byte and across bytes. */
+		for(int[] errors : new int[][] {{0, 0x01}, {1, 0x81}, {0, 0x80, 3, 0x01}}) {
+			final float[] stream = send(data);
+			for(int i = 0; i < errors.length; i += 2)
+				flip(stream, 2 * FRAME + errors[i], errors[i + 1]);
+			final FrameReceiver receiver = receive(stream);
+			assertArrayEquals(Arrays.toString(errors), data, receiver.getAndClearData());
+			assertEquals(6, receiver.getGoodFrames());
+		}
+		/* Three bit errors lose the frame. */
+		final float[] stream = send(data);
+		flip(stream, 2 * FRAME, 0x01);
+		flip(stream, 2 * FRAME + 1, 0x01);
+		flip(stream, 2 * FRAME + 2, 0x01);
+		final FrameReceiver receiver = receive(stream);
+		assertArrayEquals(without(data, 2), receiver.getAndClearData());
+		assertEquals(5, receiver.getGoodFrames());
+	}
+
+	@Test
+	public void crc() {
+		final byte[] data = data(6 * PAYLOAD);
+		/* A bit error in the payload and in the CRC of two frames. */
+		final float[] stream = send(data);
+		flip(stream, FRAME + FrameSender.SYNC_SZ + FrameSender.LENGTH + 5, 0x10);
+		flip(stream, 4 * FRAME - 1, 0x01);
+		final FrameReceiver receiver = receive(stream);
+		assertArrayEquals(without(without(data, 3), 1), receiver.getAndClearData());
+		assertEquals(4, receiver.getGoodFrames());
+		assertEquals(2, receiver.getBadFrames());
+	}
+
+	@Test
+	public void truncated() {
+		final byte[] data   = data(4 * PAYLOAD);
+		final float[] frames = send(data);
+		/* Garbage in front, the second frame cut after its payload and the last one after its header. */
+		final float[] garbage = new float[37];
+		final Random  random  = new Random(garbage.length);
+		for(int i = 0; i < garbage.length; i++)
+			garbage[i] = (byte)random.nextInt();
+		final float[] stream = new float[garbage.length + 4 * FRAME];
+		int pos = 0;
+		System.arraycopy(garbage, 0, stream, pos, garbage.length);
+		pos += garbage.length;
+		System.arraycopy(frames, 0, stream, pos, FRAME);
+		pos += FRAME;
+		System.arraycopy(frames, FRAME, stream, pos, FRAME - FrameSender.CRC_SZ);
+		pos += FRAME - FrameSender.CRC_SZ;
+		System.arraycopy(frames, 2 * FRAME, stream, pos, 2 * FRAME - PAYLOAD - FrameSender.CRC_SZ);
+		pos += 2 * FRAME - PAYLOAD - FrameSender.CRC_SZ;
+		final FrameReceiver receiver = receive(Arrays.copyOf(stream, pos));
+		assertArrayEquals(Arrays.copyOfRange(without(data, 1), 0, 2 * PAYLOAD), receiver.getAndClearData());
+		assertEquals(2, receiver.getGoodFrames());
+		assertEquals(1, receiver.getBadFrames());
+	}
+}
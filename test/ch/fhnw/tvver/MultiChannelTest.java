@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Round trips of MultiChannelSender and MultiChannelReceiver through the channel of Main.
+ * 
+ * @author agent
+ *
+ */
+public class MultiChannelTest {
+	/**
+	 * Send data through a channel with the band and noise of Main.
+	 * @param modem The modem name, e.g. "2CH+DTMF".
+	 * @param data The data to send.
+	 * @return The received data.
+	 */
+	private static byte[] transmit(String modem, byte[] data) throws ReflectiveOperationException {
+		final float          samplingFrequency = 48000;
+		final AbstractSender sender   = Modems.sender(modem);
+		final float[]        preamble = sender.init(samplingFrequency);
+		final int            channels = sender.getNumChannels();
+		final int            silence  = Sweep.scale(Sweep.SILENCE, samplingFrequency) * channels;
+		final float[]        signal   = new float[silence + preamble.length + sender.getNumSamples(data, 0, data.length) + silence];
+		System.arraycopy(preamble, 0, signal, silence, preamble.length);
+		sender.synthesizeInto(data, 0, data.length, signal, silence + preamble.length);
+
+		final Channel          channel  = new Channel(samplingFrequency, Main.LOW_FREQ, Main.HIGH_FREQ, Main.NOISE, 1, data.length, channels);
+		final AbstractReceiver receiver = Modems.receiver(modem);
+		receiver.init(samplingFrequency);
+		final float[] frame = new float[Sweep.scale(Sweep.FRAME_SIZE, samplingFrequency) * channels];
+		for(int i = 0; i < signal.length; i += frame.length) {
+			final int len = Math.min(frame.length, signal.length - i);
+			channel.process(signal, i, len, frame, 0);
+			Arrays.fill(frame, len, frame.length, 0f);
+			receiver.receive(frame);
+		}
+		return receiver.getAndClearData();
+	}
+
+	private static byte[] data(int len) {
+		final byte[] result = new byte[len];
+		new Random(len).nextBytes(result);
+		return result;
+	}
+
+	@Test
+	public void roundTrip() throws ReflectiveOperationException {
+		/* Lengths which are not a multiple of the number of channels leave the last round incomplete. */
+		for(String modem : new String[] {"2CH+DTMF", "3CH+SimpleAM", "2CH+QAM16", "3CH+QAM16"})
+			for(int len : new int[] {1, 31, 301})
+				assertArrayEquals(modem + " " + len + " bytes", data(len), transmit(modem, data(len)));
+	}
+
+	/* Receiver with one command in the audio pipeline. */
+	private static final class CommandReceiver extends AbstractReceiver {
+		final DTMFReceiver cmd = new DTMFReceiver();
+
+		@Override
+		public void init(float samplingFrequency) {
+			super.init(samplingFrequency);
+			getCmds().clear();
+			insert(cmd);
+		}
+
+		@Override
+		protected void process(float[] samples) {}
+	}
+
+	@Test
+	public void commands() {
+		final CommandReceiver[]    channels = {new CommandReceiver(), new CommandReceiver()};
+		final MultiChannelReceiver receiver = new MultiChannelReceiver(0.01, channels);
+		/* Forwarded on init(), once per init(). */
+		for(int i = 0; i < 2; i++) {
+			receiver.init(48000);
+			assertEquals(Arrays.asList(channels[0].cmd, channels[1].cmd), receiver.getCmds());
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Subcarrier layout and round trips of the OFDM modems through the band-limited channel of Main.
+ * 
+ * @author agent
+ *
+ */
+public class OFDMTest {
+	private static final int[]   ORDERS = {4, 16};
+	private static final float[] RATES  = {44100, 48000, 96000, 192000};
+
+	/**
+	 * Send data through a channel with the band of Main.
+	 * @param order The constellation order per subcarrier.
+	 * @param samplingFrequency The sampling frequency.
+	 * @param data The data to send.
+	 * @param noise Amplitude of the white noise.
+	 * @return The received data.
+	 */
+	static byte[] transmit(int order, float samplingFrequency, byte[] data, float noise) {
+		final OFDMSender sender   = new OFDMSender(order);
+		final float[]    preamble = sender.init(samplingFrequency);
+		final int        silence  = Sweep.scale(Sweep.SILENCE, samplingFrequency);
+		final float[]    signal   = new float[silence + preamble.length + sender.getNumSamples(data, 0, data.length) + silence];
+		System.arraycopy(preamble, 0, signal, silence, preamble.length);
+		sender.synthesizeInto(data, 0, data.length, signal, silence + preamble.length);
+
+		final Channel      channel  = new Channel(samplingFrequency, Main.LOW_FREQ, Main.HIGH_FREQ, noise, 1, order);
+		final OFDMReceiver receiver = new OFDMReceiver(order);
+		receiver.init(samplingFrequency);
+		final float[] frame = new float[Sweep.scale(Sweep.FRAME_SIZE, samplingFrequency)];
+		for(int i = 0; i < signal.length; i += frame.length) {
+			final int len = Math.min(frame.length, signal.length - i);
+			channel.process(signal, i, len, frame, 0);
+			Arrays.fill(frame, len, frame.length, 0f);
+			receiver.receive(frame);
+		}
+		return receiver.getAndClearData();
+	}
+
+	private static byte[] data(int len) {
+		final byte[] result = new byte[len];
+		new Random(len).nextBytes(result);
+		return result;
+	}
+
+	@Test
+	public void layout() {
+		for(float samplingFrequency : RATES) {
+			final OFDMLayout layout = new OFDMLayout(samplingFrequency, new QAMConstellation(16));
+			assertEquals("power of two at " + samplingFrequency + " Hz", Integer.highestOneBit(layout.n), layout.n);
+			assertTrue("spacing at " + samplingFrequency + " Hz", samplingFrequency / layout.n <= 47 && 2 * samplingFrequency / layout.n > 47);
+			assertEquals("cyclic prefix at " + samplingFrequency + " Hz", layout.n / 16, layout.cp);
+		}
+		assertEquals(1024, new OFDMLayout(48000, new QAMConstellation(16)).n);
+	}
+
+	@Test
+	public void noiseFree() {
+		/* Several frames, the last one partial. */
+		final byte[] data = data(2 * OFDMSender.FRAME_SIZE + 100);
+		for(float samplingFrequency : RATES)
+			for(int order : ORDERS)
+				assertArrayEquals(order + "-QAM OFDM at " + samplingFrequency + " Hz", data, transmit(order, samplingFrequency, data, 0));
+	}
+
+	@Test
+	public void noise() {
+		final byte[] data = data(OFDMSender.FRAME_SIZE + 100);
+		assertArrayEquals(data, transmit(4, 48000, data, 0.15f));
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Encode, corrupt and decode blocks of ReedSolomon at and beyond its correction limits.
+ * 
+ * @author agent
+ *
+ */
+public class ReedSolomonTest {
+	/* Defaults of ReedSolomon(): RS(255,223) interleaved to depth 4. */
+	private static final int N     = 255;
+	private static final int T     = (255 - 223) / 2;
+	private static final int DEPTH = 4;
+
+	private static byte[] data(FEC fec, long seed) {
+		final byte[] result = new byte[fec.getDataSize()];
+		new Random(seed).nextBytes(result);
+		return result;
+	}
+
+	private static byte[] encode(FEC fec, byte[] data) {
+		final byte[] result = new byte[fec.getCodeSize()];
+		fec.encode(data, 0, result, 0);
+		return result;
+	}
+
+	/**
+	 * Corrupt distinct bytes of one interleaved code word.
+	 * @param code The block.
+	 * @param word Index of the code word in the block.
+	 * @param n Code word length.
+	 * @param depth Interleaving depth.
+	 * @param errors Number of bytes to corrupt.
+	 * @param random Source of the positions and error values.
+	 */
+	private static void corrupt(byte[] code, int word, int n, int depth, int errors, Random random) {
+		final boolean[] hit = new boolean[n];
+		for(int e = 0; e < errors; e++) {
+			int j;
+			do j = random.nextInt(n); while(hit[j]);
+			hit[j] = true;
+			code[j * depth + word] ^= 1 + random.nextInt(255);
+		}
+	}
+
+	@Test
+	public void clean() {
+		final FEC    fec  = new ReedSolomon();
+		final byte[] data = data(fec, 1);
+		final byte[] code = encode(fec, data);
+		/* Systematic: the data is sent unchanged in front of the parity. */
+		for(int i = 0; i < data.length; i++)
+			assertEquals(data[i], code[i]);
+		final byte[] decoded = new byte[data.length];
+		assertEquals(0, fec.decode(code, 0, decoded, 0));
+		assertArrayEquals(data, decoded);
+	}
+
+	@Test
+	public void correctable() {
+		final FEC fec = new ReedSolomon();
+		for(long seed = 0; seed < 20; seed++) {
+			final Random random = new Random(seed);
+			final byte[] data   = data(fec, seed);
+			final byte[] code   = encode(fec, data);
+			/* t errors in every code word, including parity bytes. */
+			for(int c = 0; c < DEPTH; c++)
+				corrupt(code, c, N, DEPTH, T, random);
+			final byte[] decoded = new byte[data.length];
+			assertEquals(DEPTH * T, fec.decode(code, 0, decoded, 0));
+			assertArrayEquals(data, decoded);
+		}
+	}
+
+	@Test
+	public void uncorrectable() {
+		final FEC fec = new ReedSolomon();
+		for(long seed = 0; seed < 20; seed++) {
+			final Random random = new Random(seed);
+			final byte[] code   = encode(fec, data(fec, seed));
+			/* t + 1 errors in one code word are detected. */
+			corrupt(code, (int)seed % DEPTH, N, DEPTH, T + 1, random);
+			assertEquals(-1, fec.decode(code, 0, new byte[fec.getDataSize()], 0));
+		}
+	}
+
+	@Test
+	public void burst() {
+		final FEC fec = new ReedSolomon();
+		for(int start = 0; start < 200; start += 37) {
+			final byte[] data = data(fec, start);
+			/* Interleaving spreads a burst of depth * t bytes to t bytes per code word. */
+			byte[] code = encode(fec, data);
+			for(int i = start; i < start + DEPTH * T; i++)
+				code[i] ^= 0xFF;
+			final byte[] decoded = new byte[data.length];
+			assertEquals(DEPTH * T, fec.decode(code, 0, decoded, 0));
+			assertArrayEquals(data, decoded);
+
+			/* One more byte puts t + 1 errors into one code word. */
+			code = encode(fec, data);
+			for(int i = start; i < start + DEPTH * T + 1; i++)
+				code[i] ^= 0xFF;
+			assertEquals(-1, fec.decode(code, 0, decoded, 0));
+		}
+	}
+
+	@Test
+	public void shortened() {
+		final int n = 64;
+		final int t = 8;
+		final FEC fec = new ReedSolomon(n, n - 2 * t, 2);
+		for(long seed = 0; seed < 20; seed++) {
+			final Random random = new Random(seed);
+			final byte[] data   = data(fec, seed);
+			byte[] code = encode(fec, data);
+			corrupt(code, 0, n, 2, t, random);
+			corrupt(code, 1, n, 2, t, random);
+			final byte[] decoded = new byte[data.length];
+			assertEquals(2 * t, fec.decode(code, 0, decoded, 0));
+			assertArrayEquals(data, decoded);
+
+			code = encode(fec, data);
+			corrupt(code, 1, n, 2, t + 1, random);
+			assertEquals(-1, fec.decode(code, 0, decoded, 0));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void oddParity() {
+		new ReedSolomon(255, 224, 1);
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Accuracy and streaming of Resampler, and modems behind a ResamplingSender and ResamplingReceiver.
+ * 
+ * @author agent
+ *
+ */
+public class ResamplerTest {
+	private static float[] sine(float frequency, float samplingFrequency, int len) {
+		final float[] result = new float[len];
+		for(int i = 0; i < len; i++)
+			result[i] = (float)Math.sin(2 * Math.PI * frequency * i / samplingFrequency);
+		return result;
+	}
+
+	private static float[] resample(Resampler resampler, float[] src) {
+		final float[] dst = new float[resampler.getMaxOutput(src.length)];
+		return Arrays.copyOf(dst, resampler.process(src, 0, src.length, dst, 0));
+	}
+
+	@Test
+	public void sine() {
+		final float[][] rates = {{48000, 44100}, {44100, 48000}, {48000, 16000}, {24000, 96000}};
+		for(float[] rate : rates) {
+			final Resampler resampler = new Resampler(rate[0], rate[1]);
+			final float[]   out       = resample(resampler, sine(1000, rate[0], 20000));
+			/* Output sample k is at input sample k * in / out, skip the filter edges. */
+			final double step = rate[0] / (double)rate[1];
+			final int    edge = (int)Math.ceil(2 * resampler.getLatency() / step);
+			assertTrue(out.length > 2 * edge);
+			for(int k = edge; k < out.length - edge; k++)
+				assertEquals(rate[0] + " to " + rate[1] + " Hz at " + k, Math.sin(2 * Math.PI * 1000 * k * step / rate[0]), out[k], 2e-3);
+		}
+	}
+
+	@Test
+	public void stopband() {
+		/* 12 kHz is above the cut-off at 90% of 8 kHz. */
+		final float[] out = resample(new Resampler(48000, 16000), sine(12000, 48000, 48000));
+		double power = 0;
+		for(int k = 1000; k < out.length - 1000; k++)
+			power += out[k] * out[k];
+		power /= out.length - 2000;
+		assertTrue("attenuation " + 10 * Math.log10(2 * power) + " dB", 10 * Math.log10(2 * power) < -60);
+	}
+
+	@Test
+	public void blockSize() {
+		final float[]   in     = sine(3000, 48000, 30000);
+		final float[]   whole  = resample(new Resampler(48000, 44100), in);
+		final Resampler blocks = new Resampler(48000, 44100);
+		final float[]   out    = new float[blocks.getMaxOutput(in.length) + 100];
+		final Random    random = new Random(1);
+		int count = 0;
+		for(int off = 0; off < in.length;) {
+			final int len = Math.min(1 + random.nextInt(2000), in.length - off);
+			assertTrue(count + blocks.getMaxOutput(len) <= out.length);
+			count += blocks.process(in, off, len, out, count);
+			off   += len;
+		}
+		/* The position is kept relative to the buffer, thus it rounds differently. */
+		assertArrayEquals(whole, Arrays.copyOf(out, count), 1e-6f);
+	}
+
+	/**
+	 * Send data through a layered modem and a noise-free channel with the band of Main.
+	 */
+	private static byte[] transmit(String modem, byte[] data) throws ReflectiveOperationException {
+		final float          samplingFrequency = Sweep.SAMPLING_FREQUENCY;
+		final AbstractSender sender            = Modems.sender(modem);
+		final float[]        preamble          = sender.init(samplingFrequency);
+		final int            silence           = Sweep.SILENCE;
+		final float[]        signal            = new float[silence + preamble.length + sender.getNumSamples(data, 0, data.length) + silence];
+		System.arraycopy(preamble, 0, signal, silence, preamble.length);
+		sender.synthesizeInto(data, 0, data.length, signal, silence + preamble.length);
+
+		final Channel          channel  = new Channel(samplingFrequency, Main.LOW_FREQ, Main.HIGH_FREQ, 0, 1, 0);
+		final AbstractReceiver receiver = Modems.receiver(modem);
+		receiver.init(samplingFrequency);
+		final float[] frame = new float[Sweep.FRAME_SIZE];
+		for(int i = 0; i < signal.length; i += frame.length) {
+			final int len = Math.min(frame.length, signal.length - i);
+			channel.process(signal, i, len, frame, 0);
+			Arrays.fill(frame, len, frame.length, 0f);
+			receiver.receive(frame);
+		}
+		return receiver.getAndClearData();
+	}
+
+	@Test
+	public void modems() throws ReflectiveOperationException {
+		final byte[] data = new byte[3000];
+		new Random(3).nextBytes(data);
+		for(String modem : new String[] {"24000HZ+QAM16", "44100HZ+QAM64", "96000HZ+QAM16", "32000HZ+OFDM"})
+			assertArrayEquals(modem, data, transmit(modem, data));
+	}
+
+	@Test
+	public void contiguousChunks() throws ReflectiveOperationException {
+		/* SimpleAM chunks are not padded with silence, thus the receiver sees a seam every 256 bytes. */
+		final byte[] data = new byte[3 * new SimpleAMSender().getChunkSize() + 100];
+		new Random(4).nextBytes(data);
+		for(String modem : new String[] {"44100HZ+SimpleAM", "32000HZ+SimpleAM"})
+			assertArrayEquals(modem, data, transmit(modem, data));
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Samples of SenderStream compared with init() and synthesize() of the same sender.
+ * 
+ * @author agent
+ *
+ */
+public class SenderStreamTest {
+	/* Modems with framing, channels and resampling in addition to the modems of Modems.list(). */
+	private static final String[] LAYERS = {"FRAME+SimpleAM", "RS+QAM16", "2CH+DTMF", "24000HZ+QAM"};
+
+	/**
+	 * Read a stream frame by frame.
+	 * @return The samples up to the end of the last frame.
+	 */
+	private static float[] stream(String modem, byte[] data, int silence, int frameSize) throws IOException, ReflectiveOperationException {
+		final SenderStream stream = new SenderStream(Modems.sender(modem), 48000, Channels.newChannel(new ByteArrayInputStream(data)), silence);
+		final float[]      frame  = new float[frameSize];
+		float[] result = new float[0];
+		while(stream.read(frame)) {
+			result = Arrays.copyOf(result, result.length + frame.length);
+			System.arraycopy(frame, 0, result, result.length - frame.length, frame.length);
+		}
+		assertFalse(stream.read(frame));
+		return result;
+	}
+
+	/**
+	 * @return Silence, init() and synthesize() of a new sender.
+	 */
+	private static float[] synthesize(String modem, byte[] data, int silence) throws ReflectiveOperationException {
+		final AbstractSender sender  = Modems.sender(modem);
+		final float[]        init    = sender.init(48000);
+		final float[]        samples = sender.synthesize(data);
+		final float[]        result  = new float[silence + init.length + samples.length];
+		System.arraycopy(init, 0, result, silence, init.length);
+		System.arraycopy(samples, 0, result, silence + init.length, samples.length);
+		return result;
+	}
+
+	private static void compare(String modem, byte[] data, int silence, int frameSize) throws IOException, ReflectiveOperationException {
+		final float[] expected = synthesize(modem, data, silence);
+		final float[] actual   = stream(modem, data, silence, frameSize);
+		final String  message  = modem + " " + data.length + " bytes, frame size " + frameSize;
+		/* The last frame is padded with silence. */
+		assertEquals(message, (expected.length + frameSize - 1) / frameSize * frameSize, actual.length);
+		assertArrayEquals(message, expected, Arrays.copyOf(actual, expected.length), 0f);
+		for(int i = expected.length; i < actual.length; i++)
+			assertEquals(message, 0f, actual[i], 0f);
+	}
+
+	private static byte[] data(int len) {
+		final byte[] result = new byte[len];
+		new Random(len).nextBytes(result);
+		return result;
+	}
+
+	@Test
+	public void modems() throws IOException, ReflectiveOperationException {
+		assertFalse(Modems.list().isEmpty());
+		for(String modem : Modems.list()) {
+			final AbstractSender sender = Modems.sender(modem);
+			/* Chunks split a multi-chunk payload, the last one is partial. */
+			final byte[] data = data(2 * sender.getChunkSize() + 17);
+			compare(modem, data, 0, Sweep.FRAME_SIZE);
+		}
+	}
+
+	@Test
+	public void layers() throws IOException, ReflectiveOperationException {
+		for(String modem : LAYERS) {
+			final AbstractSender sender = Modems.sender(modem);
+			final byte[]         data   = data(sender.getChunkSize() + 17);
+			compare(modem, data, 4096 * sender.getNumChannels(), 2 * 1000);
+		}
+	}
+
+	@Test
+	public void empty() throws IOException, ReflectiveOperationException {
+		compare("QAM", new byte[0], 100, 64);
+		assertEquals(0, stream("SimpleAM", new byte[0], 0, 64).length);
+	}
+}
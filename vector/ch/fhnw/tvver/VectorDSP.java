@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026 agent
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *  Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *  Neither the name of FHNW / ETH Zurich nor the names of its contributors may
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.fhnw.tvver;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD DSP kernels on the preferred vector width of the CPU. Sums are accumulated per lane 
+ * and reduced at the end, thus results differ from ScalarDSP in the last bits. Inputs shorter
+ * than one vector go to ScalarDSP. The Goertzel filter bank runs one filter per lane on the
+ * narrowest vector holding all filters. Requires Java 16 or later with 
+ * "--add-modules jdk.incubator.vector" for compiling and running.
+ * 
+ * @author agent
+ *
+ */
+public final class VectorDSP extends DSP {
+	private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+	/* Kernels for short inputs. */
+	private static final DSP                  SCALAR  = new ScalarDSP();
+
+	@Override
+	public String getName() {
+		return "vector";
+	}
+
+	@Override
+	public float energy(float[] x, int off, int len) {
+		if(len < SPECIES.length())
+			return SCALAR.energy(x, off, len);
+		FloatVector acc   = FloatVector.zero(SPECIES);
+		final int   bound = SPECIES.loopBound(len);
+		int i = 0;
+		for(; i < bound; i += SPECIES.length()) {
+			final FloatVector v = FloatVector.fromArray(SPECIES, x, off + i);
+			acc = v.fma(v, acc);
+		}
+		float result = acc.reduceLanes(VectorOperators.ADD);
+		for(; i < len; i++)
+			result += x[off + i] * x[off + i];
+		return result;
+	}
+
+	@Override
+	public float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+		if(len < SPECIES.length())
+			return SCALAR.dot(a, aOff, b, bOff, len);
+		FloatVector acc   = FloatVector.zero(SPECIES);
+		final int   bound = SPECIES.loopBound(len);
+		int i = 0;
+		for(; i < bound; i += SPECIES.length())
+			acc = FloatVector.fromArray(SPECIES, a, aOff + i).fma(FloatVector.fromArray(SPECIES, b, bOff + i), acc);
+		float result = acc.reduceLanes(VectorOperators.ADD);
+		for(; i < len; i++)
+			result += a[aOff + i] * b[bOff + i];
+		return result;
+	}
+
+	@Override
+	public void mix(float[] x, int off, float[] cos, float[] sin, int len, float[] iq) {
+		if(len < SPECIES.length()) {
+			SCALAR.mix(x, off, cos, sin, len, iq);
+			return;
+		}
+		FloatVector accI  = FloatVector.zero(SPECIES);
+		FloatVector accQ  = FloatVector.zero(SPECIES);
+		final int   bound = SPECIES.loopBound(len);
+		int j = 0;
+		for(; j < bound; j += SPECIES.length()) {
+			final FloatVector v = FloatVector.fromArray(SPECIES, x, off + j);
+			accI = v.fma(FloatVector.fromArray(SPECIES, cos, j), accI);
+			accQ = v.fma(FloatVector.fromArray(SPECIES, sin, j), accQ);
+		}
+		float i = accI.reduceLanes(VectorOperators.ADD);
+		float q = accQ.reduceLanes(VectorOperators.ADD);
+		for(; j < len; j++) {
+			i += x[off + j] * cos[j];
+			q += x[off + j] * sin[j];
+		}
+		iq[0] = i;
+		iq[1] = q;
+	}
+
+	@Override
+	public void goertzel(float[] x, int off, int len, float[] coeff, float[] s1, float[] s2) {
+		final VectorSpecies<Float> species = species(coeff.length);
+		for(int k = 0; k < coeff.length; k += species.length()) {
+			final VectorMask<Float> mask = species.indexInRange(k, coeff.length);
+			final FloatVector       c    = FloatVector.fromArray(species, coeff, k, mask);
+			FloatVector q1 = FloatVector.fromArray(species, s1, k, mask);
+			FloatVector q2 = FloatVector.fromArray(species, s2, k, mask);
+			for(int i = off; i < off + len; i++) {
+				final FloatVector q0 = c.fma(q1, q2.neg()).add(x[i]);
+				q2 = q1;
+				q1 = q0;
+			}
+			q1.intoArray(s1, k, mask);
+			q2.intoArray(s2, k, mask);
+		}
+	}
+
+	/**
+	 * @param lanes Number of lanes needed.
+	 * @return The narrowest species with at least lanes lanes, at most the preferred one.
+	 */
+	private static VectorSpecies<Float> species(int lanes) {
+		if(lanes <= FloatVector.SPECIES_128.length()) return FloatVector.SPECIES_128;
+		if(lanes <= FloatVector.SPECIES_256.length() && SPECIES.length() >= FloatVector.SPECIES_256.length()) return FloatVector.SPECIES_256;
+		return SPECIES;
+	}
+}